@@ -6,7 +6,6 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -19,7 +18,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.demo.Model.Address;
 import com.example.demo.Model.AddressRepository;
 import com.example.demo.Model.MyAppUser;
-import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Security.CurrentUser;
 
 @RestController
 @RequestMapping("/addresses")
@@ -28,50 +27,28 @@ public class AddressController {
     @Autowired
     private AddressRepository addressRepository;
     
-    @Autowired
-    private MyAppUserRepository userRepository;
-    
     @GetMapping
-    public ResponseEntity<List<Address>> getUserAddresses(Authentication authentication) {
-        if (authentication == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
+    public ResponseEntity<List<Address>> getUserAddresses(@CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        List<Address> addresses = addressRepository.findByUser(userOpt.get());
+        List<Address> addresses = addressRepository.findByUser(user);
         return ResponseEntity.ok(addresses);
     }
     
     @PostMapping
-    public ResponseEntity<String> addAddress(@RequestBody Address address, Authentication authentication) {
-        if (authentication == null) {
+    public ResponseEntity<String> addAddress(@RequestBody Address address, @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Please login");
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
-        }
-        
-        MyAppUser user = userOpt.get();
         address.setUser(user);
         
         // If this is the first address or marked as default, make it default
-        List<Address> existingAddresses = addressRepository.findByUser(user);
-        if (existingAddresses.isEmpty() || address.getIsDefault()) {
-            // Remove default from other addresses
-            existingAddresses.forEach(addr -> {
-                addr.setIsDefault(false);
-                addressRepository.save(addr);
-            });
+        if (Boolean.TRUE.equals(address.getIsDefault())) {
+            addressRepository.clearDefault(user.getId());
+        } else if (!addressRepository.findByUserAndIsDefaultTrue(user).isPresent()) {
             address.setIsDefault(true);
         }
         
@@ -80,19 +57,12 @@ public class AddressController {
     }
     
     @PutMapping("/{addressId}")
-    public ResponseEntity<String> updateAddress(@PathVariable Long addressId, @RequestBody Address updatedAddress, Authentication authentication) {
-        if (authentication == null) {
+    public ResponseEntity<String> updateAddress(@PathVariable Long addressId, @RequestBody Address updatedAddress, @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Please login");
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
-        }
-        
-        Optional<Address> addressOpt = addressRepository.findById(addressId);
+        Optional<Address> addressOpt = addressRepository.findByIdAndUserId(addressId, user.getId());
         
         if (!addressOpt.isPresent()) {
             return ResponseEntity.notFound().build();
@@ -100,10 +70,6 @@ public class AddressController {
         
         Address address = addressOpt.get();
         
-        if (!address.getUser().getId().equals(userOpt.get().getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-        }
-        
         // Update address fields
         address.setFullName(updatedAddress.getFullName());
         address.setAddressLine1(updatedAddress.getAddressLine1());
@@ -114,12 +80,8 @@ public class AddressController {
         address.setPhoneNumber(updatedAddress.getPhoneNumber());
         
         // Handle default address
-        if (updatedAddress.getIsDefault()) {
-            List<Address> userAddresses = addressRepository.findByUser(userOpt.get());
-            userAddresses.forEach(addr -> {
-                addr.setIsDefault(false);
-                addressRepository.save(addr);
-            });
+        if (Boolean.TRUE.equals(updatedAddress.getIsDefault())) {
+            addressRepository.clearDefaultExcept(user.getId(), addressId);
             address.setIsDefault(true);
         }
         
@@ -128,31 +90,14 @@ public class AddressController {
     }
     
     @DeleteMapping("/{addressId}")
-    public ResponseEntity<String> deleteAddress(@PathVariable Long addressId, Authentication authentication) {
-        if (authentication == null) {
+    public ResponseEntity<String> deleteAddress(@PathVariable Long addressId, @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Please login");
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
-        }
-        
-        Optional<Address> addressOpt = addressRepository.findById(addressId);
-        
-        if (!addressOpt.isPresent()) {
+        if (addressRepository.deleteByIdAndUserId(addressId, user.getId()) == 0) {
             return ResponseEntity.notFound().build();
         }
-        
-        Address address = addressOpt.get();
-        
-        if (!address.getUser().getId().equals(userOpt.get().getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
-        }
-        
-        addressRepository.delete(address);
         return ResponseEntity.ok("Address deleted successfully");
     }
     
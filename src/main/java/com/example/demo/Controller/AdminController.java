@@ -1,23 +1,47 @@
 package com.example.demo.Controller;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.demo.Model.MyAppUser;
-import com.example.demo.Model.MyAppUserRepository;
 import com.example.demo.Model.Order;
 import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderSearchCriteria;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.OrderSummary;
+import com.example.demo.Security.CurrentUser;
+import com.example.demo.service.OrderExportService;
+import com.example.demo.service.OrderStatusException;
+import com.example.demo.service.OrderStatusService;
+import com.example.demo.service.TrackingIngestionService;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/admin")
@@ -27,64 +51,221 @@ public class AdminController {
     private OrderRepository orderRepository;
     
     @Autowired
-    private MyAppUserRepository userRepository;
+    private OrderExportService orderExportService;
+    
+    @Autowired
+    private OrderStatusService orderStatusService;
     
+    @Autowired
+    private TrackingIngestionService trackingIngestionService;
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    // Paginated order list; items are fetched per order via GET /admin/orders/{orderId}
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getAllOrders(Authentication authentication) {
-        if (authentication == null) {
+    public ResponseEntity<OrderPage> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String orderNumber,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
+        // For now, allow any authenticated user to access admin functions
+        // In a real application, you would check for admin role
+        OrderSearchCriteria criteria;
+        try {
+            criteria = criteria(status, paymentStatus, from, to, orderNumber);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        if (!userOpt.isPresent()) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        return ResponseEntity.ok(new OrderPage(orderRepository.findSummaries(criteria, pageRequest)));
+    }
+    
+    // Streams every matching order; rows go from a database cursor straight to the response
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String orderNumber,
+            @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        // For now, allow any authenticated user to access admin functions
-        // In a real application, you would check for admin role
-        List<Order> orders = orderRepository.findAllWithOrderItems();
-        return ResponseEntity.ok(orders);
+        OrderExportService.Format exportFormat;
+        OrderSearchCriteria criteria;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.trim().toUpperCase());
+            criteria = criteria(status, paymentStatus, from, to, orderNumber);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        String filename = "orders-" + LocalDate.now() + (csv ? ".csv" : ".ndjson");
+        
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> orderExportService.export(criteria, exportFormat, out));
+    }
+    
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<Order> getOrder(@PathVariable Long orderId, @CurrentUser MyAppUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        return orderRepository.findWithOrderItemsById(orderId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     @PutMapping("/orders/{orderId}/status")
     public ResponseEntity<Order> updateOrderStatus(@PathVariable Long orderId, 
                                                  @RequestBody OrderController.OrderStatusUpdateRequest request,
-                                                 Authentication authentication) {
-        if (authentication == null) {
+                                                 @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        OrderStatus target;
+        try {
+            target = OrderStatus.parse(request.getStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        Optional<Order> orderOpt = orderRepository.findWithOrderItemsById(orderId);
         
         if (!orderOpt.isPresent()) {
             return ResponseEntity.notFound().build();
         }
         
-        Order order = orderOpt.get();
+        try {
+            Order order = orderStatusService.transition(orderOpt.get(), target, request.getVersion(),
+                    request.getTrackingNumber(), request.getCourierName());
+            return ResponseEntity.ok(order);
+        } catch (OrderStatusException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    // Thousands of transitions in one request: one batched conditional UPDATE per target status
+    @PostMapping("/orders/status")
+    public ResponseEntity<OrderStatusService.BulkTransitionResult> updateOrderStatuses(@RequestBody BulkStatusRequest request,
+                                                                                      @CurrentUser MyAppUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (request.getTransitions() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        Map<OrderStatus, List<Long>> idsByStatus = new EnumMap<>(OrderStatus.class);
+        try {
+            for (StatusTransition transition : request.getTransitions()) {
+                if (transition.getOrderId() == null) {
+                    return ResponseEntity.badRequest().build();
+                }
+                idsByStatus.computeIfAbsent(OrderStatus.parse(transition.getStatus()), status -> new ArrayList<>())
+                        .add(transition.getOrderId());
+            }
+            return ResponseEntity.ok(orderStatusService.transitionAll(idsByStatus));
+        } catch (IllegalArgumentException | OrderStatusException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Courier CSV export uploaded as the raw body; read line by line, so large files need no buffering
+    @PostMapping(value = "/orders/tracking", consumes = "text/csv")
+    public ResponseEntity<TrackingIngestionService.IngestResult> uploadTracking(HttpServletRequest request,
+                                                                               @CurrentUser MyAppUser user) throws IOException {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(trackingIngestionService.ingestCsv(
+                    new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    private static OrderSearchCriteria criteria(String status, String paymentStatus,
+                                                LocalDate from, LocalDate to, String orderNumber) {
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        String statusFilter = blankToNull(status);
+        criteria.setStatus(statusFilter == null ? null : OrderStatus.parse(statusFilter));
+        criteria.setPaymentStatus(blankToNull(paymentStatus));
+        criteria.setOrderNumberPrefix(blankToNull(orderNumber));
+        if (from != null) {
+            criteria.setCreatedFrom(from.atStartOfDay());
+        }
+        if (to != null) {
+            // Inclusive end date
+            criteria.setCreatedTo(to.plusDays(1).atStartOfDay());
+        }
+        return criteria;
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+    
+    // Request and Response DTOs
+    public static class BulkStatusRequest {
+        private List<StatusTransition> transitions;
+        
+        public List<StatusTransition> getTransitions() { return transitions; }
+        public void setTransitions(List<StatusTransition> transitions) { this.transitions = transitions; }
+    }
+    
+    public static class StatusTransition {
+        private Long orderId;
+        private String status;
         
-        // Update order status
-        order.setStatus(request.getStatus());
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
         
-        // Update tracking information based on status
-        if ("SHIPPED".equals(request.getStatus())) {
-            order.setShippedDate(java.time.LocalDateTime.now());
-            order.setTrackingNumber(request.getTrackingNumber());
-            order.setCourierName(request.getCourierName());
-        } else if ("DELIVERED".equals(request.getStatus())) {
-            order.setDeliveredDate(java.time.LocalDateTime.now());
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+    }
+    
+    public static class OrderPage {
+        private List<OrderSummary> content;
+        private int page;
+        private int size;
+        private long totalElements;
+        private int totalPages;
+        
+        public OrderPage(Page<OrderSummary> page) {
+            this.content = page.getContent();
+            this.page = page.getNumber();
+            this.size = page.getSize();
+            this.totalElements = page.getTotalElements();
+            this.totalPages = page.getTotalPages();
         }
         
-        orderRepository.save(order);
+        public List<OrderSummary> getContent() { return content; }
+        
+        public int getPage() { return page; }
+        
+        public int getSize() { return size; }
+        
+        public long getTotalElements() { return totalElements; }
         
-        return ResponseEntity.ok(order);
+        public int getTotalPages() { return totalPages; }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package com.example.demo.Controller;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.service.GuestCartStore;
+import com.example.demo.service.UserIdCache;
+import com.example.demo.utils.JwtTokenUtil;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+    
+    @Autowired
+    private AuthenticationManager authenticationManager;
+    
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    
+    @Autowired
+    private UserIdCache userIdCache;
+    
+    @Autowired
+    private GuestCartStore guestCartStore;
+    
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+    
+    // Exchanges username and password for a bearer access token
+    @PostMapping("/login")
+    public ResponseEntity<TokenResponse> login(@RequestBody LoginRequest request,
+                                               HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+        UsernamePasswordAuthenticationToken credentials =
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword());
+        // The client address is part of the failed-login throttle key
+        credentials.setDetails(detailsSource.buildDetails(httpRequest));
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(credentials);
+        } catch (LockedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (AuthenticationServiceException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        // Primed by MyAppUserService during authentication
+        Optional<Long> userId = userIdCache.getUserId(authentication.getName());
+        if (!userId.isPresent()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        guestCartStore.mergeOnLogin(httpRequest, httpResponse, userId.get());
+        
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        String token = jwtTokenUtil.generateAccessToken(userId.get(), authentication.getName(), roles);
+        return ResponseEntity.ok(new TokenResponse(token, jwtTokenUtil.getAccessExpirationSeconds()));
+    }
+    
+    // Request DTOs
+    public static class LoginRequest {
+        private String username;
+        private String password;
+        
+        // Getters and Setters
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+    }
+    
+    // Response DTOs
+    public static class TokenResponse {
+        private String accessToken;
+        private String tokenType = "Bearer";
+        private long expiresIn;
+        
+        public TokenResponse(String accessToken, long expiresIn) {
+            this.accessToken = accessToken;
+            this.expiresIn = expiresIn;
+        }
+        
+        public String getAccessToken() { return accessToken; }
+        
+        public String getTokenType() { return tokenType; }
+        
+        public long getExpiresIn() { return expiresIn; }
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.demo.Controller;
 
 import com.example.demo.Model.*;
+import com.example.demo.Security.CurrentUser;
+import com.example.demo.service.CartService;
+import com.example.demo.service.CartSummaryService;
+import com.example.demo.service.CartUpdateException;
+import com.example.demo.service.CatalogCache;
+import com.example.demo.service.GuestCartStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -18,143 +28,177 @@ public class CartController {
     private CartItemRepository cartItemRepository;
     
     @Autowired
-    private ProductRepository productRepository;
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private GuestCartStore guestCartStore;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private CartSummaryService cartSummaryService;
     
     @Autowired
-    private MyAppUserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
     
+    // Anonymous visitors get a cookie-keyed cart in memory, merged into cart_items on login
     @PostMapping("/add")
-    public ResponseEntity<String> addToCart(@RequestBody AddToCartRequest request, Authentication authentication) {
-        if (authentication == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Please login to add items to cart");
+    public ResponseEntity<String> addToCart(@RequestBody AddToCartRequest request, @CurrentUser MyAppUser user,
+                                            HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            return ResponseEntity.badRequest().body("Quantity must be positive");
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
+        Optional<Product> productOpt = catalogCache.findActiveById(request.getProductId());
         
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
-        }
-        
-        MyAppUser user = userOpt.get();
-        Optional<Product> productOpt = productRepository.findById(request.getProductId());
-        
-        if (!productOpt.isPresent() || !productOpt.get().getActive()) {
+        if (!productOpt.isPresent()) {
             return ResponseEntity.badRequest().body("Product not found");
         }
         
-        Product product = productOpt.get();
+        if (user == null) {
+            String cartId = guestCartStore.getOrCreateCartId(httpRequest, httpResponse);
+            switch (guestCartStore.add(cartId, request.getProductId(), request.getSize(), request.getColor(),
+                    request.getQuantity(), productOpt.get().getStock())) {
+                case INSUFFICIENT_STOCK:
+                    return ResponseEntity.badRequest().body("Insufficient stock");
+                case CART_FULL:
+                    return ResponseEntity.badRequest().body("Cart is full");
+                default:
+                    return ResponseEntity.ok("Item added to cart successfully");
+            }
+        }
         
-        if (product.getStock() < request.getQuantity()) {
+        // Cached stock only rules out obvious cases without a write
+        if (productOpt.get().getStock() < request.getQuantity()) {
             return ResponseEntity.badRequest().body("Insufficient stock");
         }
         
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem = cartItemRepository.findByUserAndProductAndSizeAndColor(
-                user, product, request.getSize(), request.getColor());
+        // Creates or tops up the line in one statement, checked against the live stock
+        int added = cartItemRepository.addOrIncrement(user.getId(), productOpt.get().getId(),
+                request.getQuantity(), request.getSize(), request.getColor());
         
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            int newQuantity = item.getQuantity() + request.getQuantity();
-            
-            if (product.getStock() < newQuantity) {
-                return ResponseEntity.badRequest().body("Insufficient stock for requested quantity");
-            }
-            
-            item.setQuantity(newQuantity);
-            cartItemRepository.save(item);
-        } else {
-            CartItem newItem = new CartItem(user, product, request.getQuantity(), request.getSize(), request.getColor());
-            cartItemRepository.save(newItem);
+        if (added == 0) {
+            return ResponseEntity.badRequest().body("Insufficient stock for requested quantity");
         }
         
+        eventPublisher.publishEvent(new CartChangedEvent(user.getId()));
         return ResponseEntity.ok("Item added to cart successfully");
     }
     
     @GetMapping
-    public ResponseEntity<List<CartItem>> getCart(Authentication authentication) {
-        if (authentication == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        
-        List<CartItem> cartItems = cartItemRepository.findByUser(userOpt.get());
+    public ResponseEntity<List<CartItemView>> getCart(@CurrentUser MyAppUser user, HttpServletRequest httpRequest) {
+        if (user == null) {
+            // Products that have since been deactivated are left out
+            List<CartItemView> guestItems = guestCartStore.cartId(httpRequest)
+                    .map(guestCartStore::lines)
+                    .orElse(List.of()).stream()
+                    .flatMap(line -> catalogCache.findActiveById(line.productId()).stream()
+                            .map(product -> CartItemView.of(line.id(), product, line.quantity(), line.size(), line.color())))
+                    .toList();
+            return ResponseEntity.ok(guestItems);
+        }
+        
+        List<CartItemView> cartItems = cartItemRepository.findByUserWithProductAndImages(user).stream()
+                .map(CartItemView::from)
+                .toList();
         return ResponseEntity.ok(cartItems);
     }
     
+    // Counts and total for the header badge; answers 304 when If-None-Match still matches
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummary> getCartSummary(@CurrentUser MyAppUser user, HttpServletRequest httpRequest) {
+        CartSummary summary = user != null
+                ? cartSummaryService.summary(user.getId())
+                : cartSummaryService.guestSummary(guestCartStore.cartId(httpRequest)
+                        .map(guestCartStore::lines)
+                        .orElse(List.of()));
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(summary.getETag())
+                .body(summary);
+    }
+    
     @PutMapping("/update/{itemId}")
-    public ResponseEntity<String> updateCartItem(@PathVariable Long itemId, @RequestBody UpdateCartRequest request, Authentication authentication) {
-        if (authentication == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Please login");
-        }
-        
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
-        }
-        
-        Optional<CartItem> cartItemOpt = cartItemRepository.findById(itemId);
-        
-        if (!cartItemOpt.isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        CartItem cartItem = cartItemOpt.get();
-        
-        if (!cartItem.getUser().getId().equals(userOpt.get().getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+    public ResponseEntity<String> updateCartItem(@PathVariable Long itemId, @RequestBody UpdateCartRequest request, @CurrentUser MyAppUser user,
+                                                 HttpServletRequest httpRequest) {
+        if (user == null) {
+            return updateGuestCartItem(itemId, request, httpRequest);
         }
         
+        // Scoped by owner in the statement itself; another user's line is not found
         if (request.getQuantity() <= 0) {
-            cartItemRepository.delete(cartItem);
+            if (cartItemRepository.deleteByIdAndUserId(itemId, user.getId()) == 0) {
+                return ResponseEntity.notFound().build();
+            }
+            eventPublisher.publishEvent(new CartChangedEvent(user.getId()));
             return ResponseEntity.ok("Item removed from cart");
         }
         
-        if (cartItem.getProduct().getStock() < request.getQuantity()) {
-            return ResponseEntity.badRequest().body("Insufficient stock");
+        if (cartItemRepository.updateQuantityByIdAndUserId(itemId, user.getId(), request.getQuantity()) == 0) {
+            // Only a rejected update pays for telling a missing line from a stock shortfall
+            return cartItemRepository.existsByIdAndUserId(itemId, user.getId())
+                    ? ResponseEntity.badRequest().body("Insufficient stock")
+                    : ResponseEntity.notFound().build();
         }
-        
-        cartItem.setQuantity(request.getQuantity());
-        cartItemRepository.save(cartItem);
+        eventPublisher.publishEvent(new CartChangedEvent(user.getId()));
         
         return ResponseEntity.ok("Cart updated successfully");
     }
     
     @DeleteMapping("/remove/{itemId}")
-    public ResponseEntity<String> removeFromCart(@PathVariable Long itemId, Authentication authentication) {
-        if (authentication == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Please login");
+    public ResponseEntity<String> removeFromCart(@PathVariable Long itemId, @CurrentUser MyAppUser user, HttpServletRequest httpRequest) {
+        if (user == null) {
+            Optional<String> cartId = guestCartStore.cartId(httpRequest);
+            if (!cartId.isPresent() || !guestCartStore.remove(cartId.get(), itemId)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok("Item removed from cart");
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
+        if (cartItemRepository.deleteByIdAndUserId(itemId, user.getId()) == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        eventPublisher.publishEvent(new CartChangedEvent(user.getId()));
+        return ResponseEntity.ok("Item removed from cart");
+    }
+    
+    // Several adds/updates/removes in one transaction; nothing is applied if any is rejected
+    @PostMapping("/batch")
+    public ResponseEntity<CartBatchResponse> applyBatch(@RequestBody CartBatchRequest request, @CurrentUser MyAppUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new CartBatchResponse("Please login", null));
         }
         
-        Optional<CartItem> cartItemOpt = cartItemRepository.findById(itemId);
+        try {
+            CartTotals cart = cartService.applyBatch(user, request.getOperations());
+            return ResponseEntity.ok(new CartBatchResponse("Cart updated successfully", cart));
+        } catch (CartUpdateException e) {
+            return ResponseEntity.badRequest().body(new CartBatchResponse(e.getMessage(), null));
+        }
+    }
+    
+    private ResponseEntity<String> updateGuestCartItem(Long itemId, UpdateCartRequest request, HttpServletRequest httpRequest) {
+        Optional<String> cartId = guestCartStore.cartId(httpRequest);
+        Optional<GuestCartStore.Line> line = cartId.flatMap(id -> guestCartStore.line(id, itemId));
         
-        if (!cartItemOpt.isPresent()) {
+        if (!line.isPresent()) {
             return ResponseEntity.notFound().build();
         }
         
-        CartItem cartItem = cartItemOpt.get();
+        if (request.getQuantity() <= 0) {
+            guestCartStore.remove(cartId.get(), itemId);
+            return ResponseEntity.ok("Item removed from cart");
+        }
         
-        if (!cartItem.getUser().getId().equals(userOpt.get().getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
+        Optional<Product> product = catalogCache.findActiveById(line.get().productId());
+        if (!product.isPresent() || product.get().getStock() < request.getQuantity()) {
+            return ResponseEntity.badRequest().body("Insufficient stock");
         }
         
-        cartItemRepository.delete(cartItem);
-        return ResponseEntity.ok("Item removed from cart");
+        guestCartStore.update(cartId.get(), itemId, request.getQuantity());
+        return ResponseEntity.ok("Cart updated successfully");
     }
     
     // Request DTOs
@@ -178,10 +222,32 @@ public class CartController {
         public void setColor(String color) { this.color = color; }
     }
     
+    public static class CartBatchRequest {
+        private List<CartOperation> operations;
+        
+        public List<CartOperation> getOperations() { return operations; }
+        public void setOperations(List<CartOperation> operations) { this.operations = operations; }
+    }
+    
     public static class UpdateCartRequest {
         private Integer quantity;
         
         public Integer getQuantity() { return quantity; }
         public void setQuantity(Integer quantity) { this.quantity = quantity; }
     }
+    
+    // Response DTOs
+    public static class CartBatchResponse {
+        private String message;
+        private CartTotals cart;
+        
+        public CartBatchResponse(String message, CartTotals cart) {
+            this.message = message;
+            this.cart = cart;
+        }
+        
+        public String getMessage() { return message; }
+        
+        public CartTotals getCart() { return cart; }
+    }
 }
\ No newline at end of file
@@ -3,166 +3,133 @@ package com.example.demo.Controller;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.demo.Model.Address;
-import com.example.demo.Model.AddressRepository;
-import com.example.demo.Model.CartItem;
-import com.example.demo.Model.CartItemRepository;
 import com.example.demo.Model.MyAppUser;
 import com.example.demo.Model.MyAppUserRepository;
 import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderCursor;
 import com.example.demo.Model.OrderItem;
 import com.example.demo.Model.OrderItemRepository;
 import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Security.CurrentUser;
+import com.example.demo.service.CheckoutException;
+import com.example.demo.service.CheckoutService;
+import com.example.demo.service.InsufficientStockException;
+import com.example.demo.service.OrderNumberGenerator;
+import com.example.demo.service.OrderStatusException;
+import com.example.demo.service.OrderStatusService;
+import com.example.demo.utils.Money;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
     
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 50;
+    
     @Autowired
     private OrderRepository orderRepository;
     
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private MyAppUserRepository userRepository;
     
     @Autowired
-    private AddressRepository addressRepository;
+    private OrderItemRepository orderItemRepository;
     
     @Autowired
-    private MyAppUserRepository userRepository;
+    private CheckoutService checkoutService;
     
     @Autowired
-    private OrderItemRepository orderItemRepository;
+    private OrderNumberGenerator orderNumberGenerator;
+    
+    @Autowired
+    private OrderStatusService orderStatusService;
     
     @PostMapping("/checkout")
-    @Transactional
-    public ResponseEntity<CheckoutResponse> checkout(@RequestBody CheckoutRequest request, Authentication authentication) {
-        if (authentication == null) {
+    public ResponseEntity<CheckoutResponse> checkout(@RequestBody CheckoutRequest request, @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        
-        MyAppUser user = userOpt.get();
-        
-        // Get cart items
-        List<CartItem> cartItems = cartItemRepository.findByUser(user);
-        
-        if (cartItems.isEmpty()) {
-            return ResponseEntity.badRequest().body(new CheckoutResponse("Cart is empty", null));
-        }
-        
-        // Get address
-        Optional<Address> addressOpt = addressRepository.findById(request.getAddressId());
-        
-        if (!addressOpt.isPresent() || !addressOpt.get().getUser().getId().equals(user.getId())) {
-            return ResponseEntity.badRequest().body(new CheckoutResponse("Invalid address", null));
-        }
-        
-        Address address = addressOpt.get();
-        
-        // Calculate total
-        double totalAmount = cartItems.stream()
-                .mapToDouble(CartItem::getSubtotal)
-                .sum();
-        
-        // Create order
-        Order order = new Order();
-        order.setUser(user);
-        order.setOrderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        order.setTotalAmount(totalAmount);
-        order.setStatus("PENDING");
-        order.setPaymentMethod(request.getPaymentMethod());
-        order.setPaymentStatus("PENDING");
-        
-        // Set estimated delivery date (3-5 business days from now)
-        LocalDateTime estimatedDelivery = LocalDateTime.now().plusDays(4); // 4 days for 3-5 business days
-        order.setEstimatedDeliveryDate(estimatedDelivery);
-        
-        // Copy address details
-        order.setShippingFullName(address.getFullName());
-        order.setShippingAddressLine1(address.getAddressLine1());
-        order.setShippingAddressLine2(address.getAddressLine2());
-        order.setShippingCity(address.getCity());
-        order.setShippingState(address.getState());
-        order.setShippingPincode(address.getPincode());
-        order.setShippingPhoneNumber(address.getPhoneNumber());
-        
-        order = orderRepository.save(order);
-        
-        // Create and save order items
-        System.out.println("Creating order items for " + cartItems.size() + " cart items");
-        for (CartItem cartItem : cartItems) {
-            System.out.println("Creating order item for product: " + cartItem.getProduct().getName());
-            OrderItem orderItem = new OrderItem(order, cartItem.getProduct(), cartItem.getQuantity(), 
-                    cartItem.getSize(), cartItem.getColor());
-            orderItem = orderItemRepository.save(orderItem);
-            order.getOrderItems().add(orderItem);
-            System.out.println("Saved order item with ID: " + orderItem.getId());
+        try {
+            Order order = checkoutService.placeOrder(user, request.getAddressId(), request.getPaymentMethod());
+            return ResponseEntity.ok(new CheckoutResponse("Order placed successfully", order.getId()));
+        } catch (InsufficientStockException e) {
+            CheckoutResponse response = new CheckoutResponse(e.getMessage(), null);
+            response.setUnavailableProductIds(e.getProductIds());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (CheckoutException e) {
+            return ResponseEntity.badRequest().body(new CheckoutResponse(e.getMessage(), null));
         }
-        
-        // Verify order items were saved
-        System.out.println("Total order items created: " + order.getOrderItems().size());
-        if (order.getOrderItems().isEmpty()) {
-            return ResponseEntity.badRequest().body(new CheckoutResponse("Failed to create order items", null));
+    }
+    
+    // Deprecated: only the newest MAX_PAGE_SIZE orders, as a bare list. Use /orders/page to see the rest
+    @Deprecated
+    @GetMapping
+    public ResponseEntity<List<Order>> getUserOrders(@CurrentUser MyAppUser user) {
+        ResponseEntity<OrderPage> page = getUserOrderPage(null, MAX_PAGE_SIZE, user);
+        if (!page.getStatusCode().is2xxSuccessful()) {
+            return ResponseEntity.status(page.getStatusCode()).build();
         }
         
-        // Clear cart
-        cartItemRepository.deleteByUser(user);
-        
-        return ResponseEntity.ok(new CheckoutResponse("Order placed successfully", order.getId()));
+        return ResponseEntity.ok(page.getBody().getItems());
     }
     
-    @GetMapping
-    public ResponseEntity<List<Order>> getUserOrders(Authentication authentication) {
-        if (authentication == null) {
+    // Keyset-paginated history, newest first: ids are paged on (created_at, id), then one query loads those orders with their items
+    @GetMapping("/page")
+    public ResponseEntity<OrderPage> getUserOrderPage(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        OrderCursor after = null;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            try {
+                after = OrderCursor.decode(cursor.trim());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
         }
         
-        List<Order> orders = orderRepository.findByUserOrderByCreatedAtDesc(userOpt.get());
-        return ResponseEntity.ok(orders);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        // One extra id tells whether another page exists, without a count query
+        List<Long> ids = after == null
+                ? orderRepository.findIdsByUser(user, Limit.of(pageSize + 1))
+                : orderRepository.findIdsByUserBefore(user, after.getCreatedAt(), after.getId(), Limit.of(pageSize + 1));
+        
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        List<Order> orders = pageIds.isEmpty() ? List.of() : orderRepository.findWithOrderItemsByIdIn(pageIds);
+        String nextCursor = hasMore ? OrderCursor.of(orders.get(orders.size() - 1)).encode() : null;
+        
+        return ResponseEntity.ok(new OrderPage(orders, nextCursor, hasMore));
     }
     
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long orderId, Authentication authentication) {
-        if (authentication == null) {
+    public ResponseEntity<Order> getOrderById(@PathVariable Long orderId, @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        Optional<Order> orderOpt = orderRepository.findWithOrderItemsByIdAndUserId(orderId, user.getId());
         
         if (!orderOpt.isPresent()) {
             return ResponseEntity.notFound().build();
@@ -170,55 +137,40 @@ public class OrderController {
         
         Order order = orderOpt.get();
         
-        if (!order.getUser().getId().equals(userOpt.get().getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
         return ResponseEntity.ok(order);
     }
     
     @PutMapping("/{orderId}/status")
     public ResponseEntity<Order> updateOrderStatus(@PathVariable Long orderId, 
                                                  @RequestBody OrderStatusUpdateRequest request,
-                                                 Authentication authentication) {
-        if (authentication == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        
-        String username = authentication.getName();
-        Optional<MyAppUser> userOpt = userRepository.findByUsername(username);
-        
-        if (!userOpt.isPresent()) {
+                                                 @CurrentUser MyAppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        Optional<Order> orderOpt = orderRepository.findWithOrderItemsByIdAndUserId(orderId, user.getId());
         
         if (!orderOpt.isPresent()) {
             return ResponseEntity.notFound().build();
         }
         
-        Order order = orderOpt.get();
-        
-        if (!order.getUser().getId().equals(userOpt.get().getId())) {
+        // Customers may only cancel; every other transition is the shop's
+        OrderStatus target;
+        try {
+            target = OrderStatus.parse(request.getStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (target != OrderStatus.CANCELLED) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        // Update order status
-        order.setStatus(request.getStatus());
-        
-        // Update tracking information based on status
-        if ("SHIPPED".equals(request.getStatus())) {
-            order.setShippedDate(LocalDateTime.now());
-            order.setTrackingNumber(request.getTrackingNumber());
-            order.setCourierName(request.getCourierName());
-        } else if ("DELIVERED".equals(request.getStatus())) {
-            order.setDeliveredDate(LocalDateTime.now());
+        try {
+            Order order = orderStatusService.transition(orderOpt.get(), target, request.getVersion(), null, null);
+            return ResponseEntity.ok(order);
+        } catch (OrderStatusException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
-        
-        orderRepository.save(order);
-        
-        return ResponseEntity.ok(order);
     }
     
     @GetMapping("/debug/{orderId}")
@@ -253,9 +205,9 @@ public class OrderController {
             // Create a test order
             Order order = new Order();
             order.setUser(user);
-            order.setOrderNumber("TEST-" + System.currentTimeMillis());
-            order.setTotalAmount(1000.0);
-            order.setStatus("PENDING");
+            order.setOrderNumber(orderNumberGenerator.next());
+            order.setTotalAmountMinor(Money.ofMajor(1000));
+            order.setStatus(OrderStatus.PENDING);
             order.setPaymentMethod("CASH");
             order.setPaymentStatus("PENDING");
             order.setEstimatedDeliveryDate(LocalDateTime.now().plusDays(4));
@@ -276,7 +228,7 @@ public class OrderController {
             orderItem.setProductName("Test Product");
             orderItem.setProductImage("/assest/logo.jpg");
             orderItem.setQuantity(2);
-            orderItem.setPrice(500.0);
+            orderItem.setPriceMinor(Money.ofMajor(500));
             orderItem.setSize("M");
             orderItem.setColor("Blue");
             
@@ -304,6 +256,7 @@ public class OrderController {
     public static class CheckoutResponse {
         private String message;
         private Long orderId;
+        private List<Long> unavailableProductIds;
         
         public CheckoutResponse(String message, Long orderId) {
             this.message = message;
@@ -315,12 +268,38 @@ public class OrderController {
         
         public Long getOrderId() { return orderId; }
         public void setOrderId(Long orderId) { this.orderId = orderId; }
+        
+        public List<Long> getUnavailableProductIds() { return unavailableProductIds; }
+        public void setUnavailableProductIds(List<Long> unavailableProductIds) { this.unavailableProductIds = unavailableProductIds; }
+    }
+    
+    public static class OrderPage {
+        private List<Order> items;
+        private String nextCursor;
+        private boolean hasMore;
+        
+        public OrderPage(List<Order> items, String nextCursor, boolean hasMore) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+        
+        public List<Order> getItems() { return items; }
+        public void setItems(List<Order> items) { this.items = items; }
+        
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+        
+        public boolean isHasMore() { return hasMore; }
+        public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
     }
     
     public static class OrderStatusUpdateRequest {
         private String status;
         private String trackingNumber;
         private String courierName;
+        // Version of the order the caller last saw; optional
+        private Long version;
         
         public String getStatus() { return status; }
         public void setStatus(String status) { this.status = status; }
@@ -330,5 +309,8 @@ public class OrderController {
         
         public String getCourierName() { return courierName; }
         public void setCourierName(String courierName) { this.courierName = courierName; }
+        
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
     }
 }
\ No newline at end of file
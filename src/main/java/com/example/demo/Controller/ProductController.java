@@ -1,9 +1,14 @@
 package com.example.demo.Controller;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,15 +17,29 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductCursor;
 import com.example.demo.Model.ProductRepository;
+import com.example.demo.Model.ProductSort;
+import com.example.demo.Model.ProductSpecifications;
+import com.example.demo.service.CatalogCache;
+import com.example.demo.service.ProductSearchIndex;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
     
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
     @GetMapping
     public ResponseEntity<List<Product>> getAllProducts(
             @RequestParam(required = false) String search,
@@ -33,7 +52,7 @@ public class ProductController {
         } else if (search != null && !search.trim().isEmpty()) {
             products = productRepository.findByActiveTrueAndNameOrDescriptionContainingIgnoreCase(search);
         } else if (category != null && !category.trim().isEmpty()) {
-            products = productRepository.findByActiveTrueAndCategory(category);
+            products = catalogCache.findActiveByCategory(category);
         } else {
             products = productRepository.findByActiveTrue();
         }
@@ -41,11 +60,88 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
     
+    // Keyset-paginated listing: cost per page stays flat however deep the client scrolls
+    @GetMapping("/page")
+    public ResponseEntity<ProductPage> getProductPage(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        
+        ProductSort productSort;
+        ProductCursor after = null;
+        try {
+            productSort = ProductSort.fromParam(sort);
+            if (cursor != null && !cursor.trim().isEmpty()) {
+                after = ProductCursor.decode(cursor.trim());
+                if (after.getSortValue() == null && productSort != ProductSort.NEWEST) {
+                    return ResponseEntity.badRequest().build();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        Specification<Product> spec = ProductSpecifications.active();
+        if (category != null && !category.trim().isEmpty()) {
+            spec = spec.and(ProductSpecifications.inCategory(category));
+        }
+        if (search != null && !search.trim().isEmpty()) {
+            spec = spec.and(ProductSpecifications.nameOrDescriptionContains(search));
+        }
+        if (after != null) {
+            spec = spec.and(ProductSpecifications.after(productSort, after));
+        }
+        
+        // Fetch one extra row to know whether another page exists, without a count query
+        List<Product> rows = productRepository.findBy(spec, query -> query
+                .sortBy(productSort.getSort())
+                .limit(pageSize + 1)
+                .all());
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? ProductCursor.of(productSort, items.get(items.size() - 1)).encode() : null;
+        
+        return ResponseEntity.ok(new ProductPage(items, nextCursor, hasMore));
+    }
+    
+    // Served from the in-memory index; only the matching rows are read from the database
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer limit) {
+        
+        int maxResults = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String categoryFilter = category == null || category.trim().isEmpty() ? null : category.trim();
+        List<Long> ids = productSearchIndex.search(query, categoryFilter, maxResults);
+        if (ids.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        
+        // Keep the index's relevance order
+        List<Product> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null && product.getActive()) {
+                results.add(product);
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productRepository.findById(id);
+        Optional<Product> product = catalogCache.findActiveById(id);
         
-        if (product.isPresent() && product.get().getActive()) {
+        if (product.isPresent()) {
             return ResponseEntity.ok(product.get());
         } else {
             return ResponseEntity.notFound().build();
@@ -54,25 +150,71 @@ public class ProductController {
     
     @GetMapping("/women")
     public ResponseEntity<List<Product>> getWomenProducts() {
-        List<Product> womenProducts = productRepository.findByActiveTrueAndCategory("Women");
+        List<Product> womenProducts = catalogCache.findActiveByCategory("Women");
         return ResponseEntity.ok(womenProducts);
     }
     
     @GetMapping("/men")
     public ResponseEntity<List<Product>> getMenProducts() {
-        List<Product> menProducts = productRepository.findByActiveTrueAndCategory("Men");
+        List<Product> menProducts = catalogCache.findActiveByCategory("Men");
         return ResponseEntity.ok(menProducts);
     }
     
     @GetMapping("/kids")
     public ResponseEntity<List<Product>> getKidsProducts() {
-        List<Product> kidsProducts = productRepository.findByActiveTrueAndCategory("Kids");
+        List<Product> kidsProducts = catalogCache.findActiveByCategory("Kids");
         return ResponseEntity.ok(kidsProducts);
     }
     
+    @GetMapping("/women/page")
+    public ResponseEntity<ProductPage> getWomenProductPage(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return getProductPage(null, "Women", sort, cursor, limit);
+    }
+    
+    @GetMapping("/men/page")
+    public ResponseEntity<ProductPage> getMenProductPage(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return getProductPage(null, "Men", sort, cursor, limit);
+    }
+    
+    @GetMapping("/kids/page")
+    public ResponseEntity<ProductPage> getKidsProductPage(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return getProductPage(null, "Kids", sort, cursor, limit);
+    }
+    
     @GetMapping("/debug/all")
     public ResponseEntity<List<Product>> getAllProductsDebug() {
         List<Product> allProducts = productRepository.findByActiveTrue();
         return ResponseEntity.ok(allProducts);
     }
+    
+    // Response DTOs
+    public static class ProductPage {
+        private List<Product> items;
+        private String nextCursor;
+        private boolean hasMore;
+        
+        public ProductPage(List<Product> items, String nextCursor, boolean hasMore) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+        
+        public List<Product> getItems() { return items; }
+        public void setItems(List<Product> items) { this.items = items; }
+        
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+        
+        public boolean isHasMore() { return hasMore; }
+        public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+    }
 }
\ No newline at end of file
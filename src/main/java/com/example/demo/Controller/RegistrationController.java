@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.demo.Model.MyAppUser;
 import com.example.demo.Model.MyAppUserRepository;
 import com.example.demo.service.EmailService;
+import com.example.demo.service.UserIdCache;
 import com.example.demo.utils.JwtTokenUtil;
 
 @RestController
@@ -25,6 +26,12 @@ public class RegistrationController {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private UserIdCache userIdCache;
+    
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    
     
     @PostMapping(value = "/req/signup", consumes = "application/json")
     public ResponseEntity<String> createUser(@RequestBody MyAppUser user){
@@ -35,18 +42,20 @@ public class RegistrationController {
             if(existingAppUser.isVerified()){
                 return new ResponseEntity<>("User Already exist and Verified.",HttpStatus.BAD_REQUEST);
             }else{
-                String verificationToken = JwtTokenUtil.generateToken(existingAppUser.getEmail());
+                String verificationToken = jwtTokenUtil.generateToken(existingAppUser.getEmail());
                 existingAppUser.setVerficationToken(verificationToken);
                 myAppUserRepository.save(existingAppUser);
+                userIdCache.evict(existingAppUser.getUsername());
                 //Send Email Code
                 emailService.sendVerificationEmail(existingAppUser.getEmail(), verificationToken);
                 return new ResponseEntity<>("Verification Email resent. Check your inbox",HttpStatus.OK);
             }
         }
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        String vericationToken =JwtTokenUtil.generateToken(user.getEmail());
+        String vericationToken =jwtTokenUtil.generateToken(user.getEmail());
         user.setVerficationToken(vericationToken);
         myAppUserRepository.save(user);
+        userIdCache.evict(user.getUsername());
         //Send Email Code
         emailService.sendVerificationEmail(user.getEmail(), vericationToken);
         
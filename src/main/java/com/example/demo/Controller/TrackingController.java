@@ -0,0 +1,53 @@
+package com.example.demo.Controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.service.TrackingIngestionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Courier webhook; authenticated by the shared app.tracking.webhook-token, not a user login
+@RestController
+public class TrackingController {
+
+    @Autowired
+    private TrackingIngestionService trackingIngestionService;
+
+    @Value("${app.tracking.webhook-token:}")
+    private String webhookToken;
+
+    // Body is a JSON array of TrackingEvent, read as a stream so batch size is not bounded by memory
+    @PostMapping(value = "/tracking/events", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TrackingIngestionService.IngestResult> receiveEvents(
+            @RequestHeader(value = "X-Tracking-Token", required = false) String token,
+            HttpServletRequest request) throws IOException {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(trackingIngestionService.ingestJson(request.getInputStream()));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private boolean authorized(String token) {
+        if (webhookToken.isEmpty() || token == null) {
+            return false;
+        }
+        // Constant time, so the token cannot be guessed byte by byte from response times
+        return MessageDigest.isEqual(webhookToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.demo.Controller;
 
+import java.util.Optional;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,8 +11,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.Model.MyAppUser;
 import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.service.UserIdCache;
 import com.example.demo.utils.JwtTokenUtil;
 
+import io.jsonwebtoken.Claims;
+
 @RestController
 public class VerificationController {
     
@@ -19,21 +24,26 @@ public class VerificationController {
     
     @Autowired
     private JwtTokenUtil jwtUtil;
+    
+    @Autowired
+    private UserIdCache userIdCache;
      
     @GetMapping("/req/signup/verify")
     public ResponseEntity verifyEmail(@RequestParam("token") String token) {
-        String emailString = jwtUtil.extractEmail(token);
-        MyAppUser user = myAppUserRepository.findByEmail(emailString);
-        if (user == null || user.getVerficationToken() == null) {
+        // One signature check; an invalid or expired token yields no claims
+        Optional<Claims> claims = jwtUtil.parse(token);
+        if (claims.isEmpty()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Token Expired!");
         }
         
-        if (!jwtUtil.validateToken(token) || !user.getVerficationToken().equals(token)) {
+        MyAppUser user = myAppUserRepository.findByEmail(claims.get().getSubject());
+        if (user == null || user.getVerficationToken() == null || !user.getVerficationToken().equals(token)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Token Expired!");
         }
         user.setVerficationToken(null);
         user.setVerified(true);  
         myAppUserRepository.save(user);
+        userIdCache.evict(user.getUsername());
         
         return ResponseEntity.status(HttpStatus.CREATED).body("Email successfully verified!");
     }
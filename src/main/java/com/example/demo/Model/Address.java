@@ -1,5 +1,7 @@
 package com.example.demo.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 
 @Entity
@@ -49,6 +51,7 @@ public class Address {
         this.id = id;
     }
     
+    @JsonIgnore
     public MyAppUser getUser() {
         return user;
     }
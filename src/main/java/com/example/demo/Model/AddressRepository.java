@@ -1,7 +1,11 @@
 package com.example.demo.Model;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +16,23 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUser(MyAppUser user);
     
     Optional<Address> findByUserAndIsDefaultTrue(MyAppUser user);
+    
+    // Scoped by owner in the WHERE clause, so another user's address is simply not found
+    Optional<Address> findByIdAndUserId(Long id, Long userId);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.id = :id AND a.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    // One UPDATE instead of loading and saving every address of the user
+    @Transactional
+    @Modifying
+    @Query("UPDATE Address a SET a.isDefault = false WHERE a.user.id = :userId AND a.isDefault = true")
+    int clearDefault(@Param("userId") Long userId);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Address a SET a.isDefault = false WHERE a.user.id = :userId AND a.isDefault = true AND a.id <> :exceptId")
+    int clearDefaultExcept(@Param("userId") Long userId, @Param("exceptId") Long exceptId);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.demo.Model;
+
+/**
+ * Published whenever a user's cart_items rows change so that cached cart
+ * summaries can be dropped.
+ */
+public class CartChangedEvent {
+    
+    private final Long userId;
+    
+    public CartChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.demo.Model;
 
+import java.math.BigDecimal;
+
+import com.example.demo.utils.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 
 @Entity
@@ -45,6 +50,7 @@ public class CartItem {
         this.id = id;
     }
     
+    @JsonIgnore
     public MyAppUser getUser() {
         return user;
     }
@@ -85,7 +91,12 @@ public class CartItem {
         this.color = color;
     }
     
-    public Double getSubtotal() {
-        return product.getPrice() * quantity;
+    @JsonIgnore
+    public long getSubtotalMinor() {
+        return Money.times(product.getPriceMinor(), quantity);
+    }
+    
+    public BigDecimal getSubtotal() {
+        return Money.toMajor(getSubtotalMinor());
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.example.demo.Model;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,7 +15,58 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     
     List<CartItem> findByUser(MyAppUser user);
     
+    // Cart lines with their products; images, if touched, load in batches through Product.images' @BatchSize
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.product WHERE c.user = :user ORDER BY c.id")
+    List<CartItem> findByUserWithProduct(@Param("user") MyAppUser user);
+    
+    // For responses that render the cart with images; one row per image, so checkout uses the query above
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.product p LEFT JOIN FETCH p.images WHERE c.user = :user ORDER BY c.id")
+    List<CartItem> findByUserWithProductAndImages(@Param("user") MyAppUser user);
+    
     Optional<CartItem> findByUserAndProductAndSizeAndColor(MyAppUser user, Product product, String size, String color);
     
-    void deleteByUser(MyAppUser user);
+    /**
+     * Adds to the user's line for this product, size and color, creating it
+     * if needed, in one statement. Relies on the unique index created by
+     * SchemaMigrationService, so concurrent adds of the same line sum up
+     * instead of inserting duplicates. Nothing is written, and 0 returned,
+     * if the product is inactive or the new quantity would exceed its stock.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO cart_items (user_id, product_id, quantity, size, color)
+            SELECT :userId, p.id, :quantity, CAST(:size AS VARCHAR), CAST(:color AS VARCHAR)
+            FROM products p
+            WHERE p.id = :productId AND p.active AND p.stock >= :quantity
+            ON CONFLICT (user_id, product_id, (COALESCE(size, '')), (COALESCE(color, '')))
+            DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity
+            WHERE cart_items.quantity + EXCLUDED.quantity <= (SELECT stock FROM products WHERE id = EXCLUDED.product_id)
+            """, nativeQuery = true)
+    int addOrIncrement(@Param("userId") Long userId, @Param("productId") Long productId,
+                       @Param("quantity") int quantity, @Param("size") String size, @Param("color") String color);
+    
+    // Header badge numbers in one aggregate query
+    @Query("SELECT new com.example.demo.Model.CartSummary(COUNT(c), SUM(c.quantity), SUM(c.quantity * p.priceMinor)) "
+            + "FROM CartItem c JOIN c.product p WHERE c.user.id = :userId")
+    CartSummary summarize(@Param("userId") Long userId);
+    
+    // Owner-scoped single-statement changes: 0 rows means no such line in this user's cart
+    @Transactional
+    @Modifying
+    @Query("UPDATE CartItem c SET c.quantity = :quantity WHERE c.id = :id AND c.user.id = :userId "
+            + "AND :quantity <= (SELECT p.stock FROM Product p WHERE p = c.product)")
+    int updateQuantityByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId, @Param("quantity") int quantity);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.id = :id AND c.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    boolean existsByIdAndUserId(Long id, Long userId);
+    
+    // Single DELETE statement instead of loading and removing each row
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem c WHERE c.user = :user")
+    int deleteByUser(@Param("user") MyAppUser user);
 }
\ No newline at end of file
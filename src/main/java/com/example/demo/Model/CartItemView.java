@@ -0,0 +1,71 @@
+package com.example.demo.Model;
+
+import java.math.BigDecimal;
+
+import com.example.demo.utils.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Flat, read-only shape of a cart line for the cart API. Built from rows that
+ * already have their product and images loaded, so serializing it never
+ * triggers lazy loading.
+ */
+public class CartItemView {
+    
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String imageUrl;
+    private long priceMinor;
+    private Integer stock;
+    private Integer quantity;
+    private String size;
+    private String color;
+    private long subtotalMinor;
+    
+    public CartItemView() {}
+    
+    public static CartItemView from(CartItem item) {
+        return of(item.getId(), item.getProduct(), item.getQuantity(), item.getSize(), item.getColor());
+    }
+    
+    // Also used for guest carts, whose lines are not cart_items rows
+    public static CartItemView of(Long id, Product product, Integer quantity, String size, String color) {
+        CartItemView view = new CartItemView();
+        view.id = id;
+        view.productId = product.getId();
+        view.productName = product.getName();
+        view.imageUrl = product.getImages().isEmpty() ? null : product.getImages().get(0);
+        view.priceMinor = product.getPriceMinor();
+        view.stock = product.getStock();
+        view.quantity = quantity;
+        view.size = size;
+        view.color = color;
+        view.subtotalMinor = Money.times(product.getPriceMinor(), quantity);
+        return view;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public Long getProductId() { return productId; }
+    
+    public String getProductName() { return productName; }
+    
+    public String getImageUrl() { return imageUrl; }
+    
+    public BigDecimal getPrice() { return Money.toMajor(priceMinor); }
+    
+    public Integer getStock() { return stock; }
+    
+    public Integer getQuantity() { return quantity; }
+    
+    public String getSize() { return size; }
+    
+    public String getColor() { return color; }
+    
+    public BigDecimal getSubtotal() { return Money.toMajor(subtotalMinor); }
+    
+    @JsonIgnore
+    public long getSubtotalMinor() { return subtotalMinor; }
+}
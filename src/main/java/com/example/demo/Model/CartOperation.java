@@ -0,0 +1,60 @@
+package com.example.demo.Model;
+
+/**
+ * One change in a batch cart update. ADD needs productId (plus size and
+ * color); UPDATE and REMOVE refer to an existing line by itemId, and an
+ * UPDATE to zero removes the line.
+ */
+public class CartOperation {
+    
+    public enum Type { ADD, UPDATE, REMOVE }
+    
+    private Type type;
+    private Long itemId;
+    private Long productId;
+    private Integer quantity;
+    private String size;
+    private String color;
+    
+    public CartOperation() {}
+    
+    public CartOperation(Type type, Long itemId, Long productId, Integer quantity, String size, String color) {
+        this.type = type;
+        this.itemId = itemId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.size = size;
+        this.color = color;
+    }
+    
+    public static CartOperation add(Long productId, Integer quantity, String size, String color) {
+        return new CartOperation(Type.ADD, null, productId, quantity, size, color);
+    }
+    
+    public static CartOperation update(Long itemId, Integer quantity) {
+        return new CartOperation(Type.UPDATE, itemId, null, quantity, null, null);
+    }
+    
+    public static CartOperation remove(Long itemId) {
+        return new CartOperation(Type.REMOVE, itemId, null, null, null, null);
+    }
+    
+    // Getters and Setters
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    
+    public Long getItemId() { return itemId; }
+    public void setItemId(Long itemId) { this.itemId = itemId; }
+    
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    
+    public String getSize() { return size; }
+    public void setSize(String size) { this.size = size; }
+    
+    public String getColor() { return color; }
+    public void setColor(String color) { this.color = color; }
+}
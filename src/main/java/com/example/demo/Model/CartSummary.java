@@ -0,0 +1,42 @@
+package com.example.demo.Model;
+
+import java.math.BigDecimal;
+
+import com.example.demo.utils.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Line count, item count and total of a cart, without the lines; what the
+ * header badge needs on every page.
+ */
+public class CartSummary {
+    
+    public static final CartSummary EMPTY = new CartSummary(0L, 0L, 0L);
+    
+    private final long itemCount;
+    private final long totalQuantity;
+    private final long totalAmountMinor;
+    
+    public CartSummary(Long itemCount, Long totalQuantity, Long totalAmountMinor) {
+        this.itemCount = itemCount == null ? 0 : itemCount;
+        this.totalQuantity = totalQuantity == null ? 0 : totalQuantity;
+        this.totalAmountMinor = totalAmountMinor == null ? 0 : totalAmountMinor;
+    }
+    
+    // Same summary, same tag, whoever's cart it is
+    @JsonIgnore
+    public String getETag() {
+        return "\"" + Long.toString(itemCount, 36) + "-" + Long.toString(totalQuantity, 36)
+                + "-" + Long.toString(totalAmountMinor, 36) + "\"";
+    }
+    
+    // Getters
+    public long getItemCount() { return itemCount; }
+    
+    public long getTotalQuantity() { return totalQuantity; }
+    
+    public BigDecimal getTotalAmount() { return Money.toMajor(totalAmountMinor); }
+    
+    @JsonIgnore
+    public long getTotalAmountMinor() { return totalAmountMinor; }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.Model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.example.demo.utils.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Cart lines together with their totals, as returned after a cart change.
+ */
+public class CartTotals {
+    
+    private List<CartItemView> items;
+    private int itemCount;
+    private int totalQuantity;
+    private long totalAmountMinor;
+    
+    public CartTotals() {}
+    
+    public static CartTotals of(List<CartItemView> items) {
+        CartTotals totals = new CartTotals();
+        totals.items = items;
+        totals.itemCount = items.size();
+        for (CartItemView item : items) {
+            totals.totalQuantity += item.getQuantity();
+            totals.totalAmountMinor = Math.addExact(totals.totalAmountMinor, item.getSubtotalMinor());
+        }
+        return totals;
+    }
+    
+    // Getters
+    public List<CartItemView> getItems() { return items; }
+    
+    public int getItemCount() { return itemCount; }
+    
+    public int getTotalQuantity() { return totalQuantity; }
+    
+    public BigDecimal getTotalAmount() { return Money.toMajor(totalAmountMinor); }
+    
+    @JsonIgnore
+    public long getTotalAmountMinor() { return totalAmountMinor; }
+}
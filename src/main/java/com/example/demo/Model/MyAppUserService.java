@@ -5,34 +5,50 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.service.UserIdCache;
+
 import lombok.AllArgsConstructor;
 
 @Service
 @AllArgsConstructor 
-public class MyAppUserService implements UserDetailsService{
+public class MyAppUserService implements UserDetailsService, UserDetailsPasswordService{
     
     @Autowired
     private MyAppUserRepository repository;
     
+    @Autowired
+    private UserIdCache userIdCache;
+    
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         
         Optional<MyAppUser> user = repository.findByUsername(username);
         if (user.isPresent()) {
             var userObj = user.get();
+            // Prime the id cache so the first request after login skips the lookup
+            userIdCache.put(userObj);
             return User.builder()
                     .username(userObj.getUsername())
                     .password(userObj.getPassword())
+                    .roles("USER")
                     .build();    
         }else{
             throw new UsernameNotFoundException(username);
         }
     }
     
-    
-    
+    // Called by DaoAuthenticationProvider after a successful login when the stored hash needs an upgrade
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        repository.findByUsername(user.getUsername()).ifPresent(appUser -> {
+            appUser.setPassword(newPassword);
+            repository.save(appUser);
+        });
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -1,29 +1,43 @@
 package com.example.demo.Model;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.example.demo.utils.Money;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_created_at", columnList = "created_at"),
+    @Index(name = "idx_orders_user_created_at", columnList = "user_id, created_at DESC, id DESC"),
+    @Index(name = "idx_orders_status", columnList = "status"),
+    @Index(name = "ux_orders_order_number", columnList = "order_number", unique = true)
+})
 public class Order {
     
+    // Sequence ids (allocated 50 at a time) let Hibernate batch inserts; IDENTITY disables batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,11 +47,14 @@ public class Order {
     @Column(nullable = false)
     private String orderNumber;
     
-    @Column(nullable = false)
-    private Double totalAmount;
+    // Paise
+    @Column(name = "total_amount", nullable = false)
+    private long totalAmountMinor;
     
+    // Changed only through OrderStatusService, which enforces the lifecycle
+    @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private String status; // PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
+    private OrderStatus status;
     
     @Column(nullable = false)
     private String paymentMethod;
@@ -78,6 +95,10 @@ public class Order {
     
     private LocalDateTime updatedAt;
     
+    // Optimistic lock: a save based on a stale read fails instead of overwriting a concurrent change
+    @Version
+    private Long version;
+    
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems = new ArrayList<>();
     
@@ -113,19 +134,24 @@ public class Order {
         this.orderNumber = orderNumber;
     }
     
-    public Double getTotalAmount() {
-        return totalAmount;
+    @JsonIgnore
+    public long getTotalAmountMinor() {
+        return totalAmountMinor;
     }
     
-    public void setTotalAmount(Double totalAmount) {
-        this.totalAmount = totalAmount;
+    public void setTotalAmountMinor(long totalAmountMinor) {
+        this.totalAmountMinor = totalAmountMinor;
     }
     
-    public String getStatus() {
+    public BigDecimal getTotalAmount() {
+        return Money.toMajor(totalAmountMinor);
+    }
+    
+    public OrderStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
         this.updatedAt = LocalDateTime.now();
     }
@@ -259,6 +285,10 @@ public class Order {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public List<OrderItem> getOrderItems() {
         return orderItems;
     }
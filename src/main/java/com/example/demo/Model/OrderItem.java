@@ -1,5 +1,8 @@
 package com.example.demo.Model;
 
+import java.math.BigDecimal;
+
+import com.example.demo.utils.Money;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
@@ -8,16 +11,22 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_items_order_id", columnList = "order_id"),
+    @Index(name = "idx_order_items_stock_settled", columnList = "stock_settled")
+})
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,8 +40,9 @@ public class OrderItem {
     @Column(nullable = false)
     private Integer quantity;
     
-    @Column(nullable = false)
-    private Double price; // Price at the time of order
+    // Price at the time of order, in paise
+    @Column(name = "price", nullable = false)
+    private long priceMinor;
     
     private String size;
     
@@ -44,6 +54,10 @@ public class OrderItem {
     
     private String productImage;
     
+    // False while the quantity is only reserved in HotInventoryService and not yet applied to products.stock
+    @Column(name = "stock_settled")
+    private Boolean stockSettled = true;
+    
     // Constructors
     public OrderItem() {}
     
@@ -51,7 +65,7 @@ public class OrderItem {
         this.order = order;
         this.product = product;
         this.quantity = quantity;
-        this.price = product.getPrice();
+        this.priceMinor = product.getPriceMinor();
         this.size = size;
         this.color = color;
         this.productName = product.getName();
@@ -97,12 +111,17 @@ public class OrderItem {
         this.quantity = quantity;
     }
     
-    public Double getPrice() {
-        return price;
+    @JsonIgnore
+    public long getPriceMinor() {
+        return priceMinor;
     }
     
-    public void setPrice(Double price) {
-        this.price = price;
+    public void setPriceMinor(long priceMinor) {
+        this.priceMinor = priceMinor;
+    }
+    
+    public BigDecimal getPrice() {
+        return Money.toMajor(priceMinor);
     }
     
     public String getSize() {
@@ -137,7 +156,21 @@ public class OrderItem {
         this.productImage = productImage;
     }
     
-    public Double getSubtotal() {
-        return price * quantity;
+    @JsonIgnore
+    public Boolean getStockSettled() {
+        return stockSettled;
+    }
+    
+    public void setStockSettled(Boolean stockSettled) {
+        this.stockSettled = stockSettled;
+    }
+    
+    @JsonIgnore
+    public long getSubtotalMinor() {
+        return Money.times(priceMinor, quantity);
+    }
+    
+    public BigDecimal getSubtotal() {
+        return Money.toMajor(getSubtotalMinor());
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.demo.Model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Lease on one OrderNumberGenerator node id; written with SQL by OrderNumberNodeLease
+@Entity
+@Table(name = "order_number_nodes")
+public class OrderNumberNode {
+
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+
+    // Instance holding the id, renewed while it runs
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+
+    // Constructors
+    public OrderNumberNode() {}
+
+    // Getters and Setters
+    public Integer getNodeId() { return nodeId; }
+    public void setNodeId(Integer nodeId) { this.nodeId = nodeId; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+}
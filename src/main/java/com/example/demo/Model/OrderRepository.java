@@ -1,21 +1,39 @@
 package com.example.demo.Model;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
     
-    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.user = :user ORDER BY o.createdAt DESC")
-    List<Order> findByUserOrderByCreatedAtDesc(@Param("user") MyAppUser user);
+    // Order history is read in two steps: a page of ids off idx_orders_user_created_at, then those orders with their items
+    @Query("SELECT o.id FROM Order o WHERE o.user = :user ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findIdsByUser(@Param("user") MyAppUser user, Limit limit);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.user = :user "
+            + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findIdsByUserBefore(@Param("user") MyAppUser user, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Limit limit);
+    
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findWithOrderItemsByIdIn(@Param("ids") Collection<Long> ids);
     
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.orderNumber = :orderNumber")
     Order findByOrderNumber(@Param("orderNumber") String orderNumber);
     
-    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems ORDER BY o.createdAt DESC")
-    List<Order> findAllWithOrderItems();
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id")
+    Optional<Order> findWithOrderItemsById(@Param("id") Long id);
+    
+    // Owner check in the same query: another user's order is simply not found
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id AND o.user.id = :userId")
+    Optional<Order> findWithOrderItemsByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.demo.Model;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface OrderRepositoryCustom {
+    
+    Page<OrderSummary> findSummaries(OrderSearchCriteria criteria, Pageable pageable);
+}
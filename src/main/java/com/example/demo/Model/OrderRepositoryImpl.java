@@ -0,0 +1,80 @@
+package com.example.demo.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// Picked up by Spring Data as the implementation of OrderRepositoryCustom
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Page<OrderSummary> findSummaries(OrderSearchCriteria criteria, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaQuery<OrderSummary> query = cb.createQuery(OrderSummary.class);
+        Root<Order> order = query.from(Order.class);
+        query.select(cb.construct(OrderSummary.class,
+                        order.get("id"),
+                        order.get("orderNumber"),
+                        order.get("status"),
+                        order.get("paymentMethod"),
+                        order.get("paymentStatus"),
+                        order.get("totalAmountMinor"),
+                        order.get("shippingFullName"),
+                        order.get("trackingNumber"),
+                        order.get("courierName"),
+                        order.get("createdAt"),
+                        cb.size(order.<List<OrderItem>>get("orderItems"))))
+                .where(filters(cb, order, criteria))
+                .orderBy(cb.desc(order.get("createdAt")), cb.desc(order.get("id")));
+        
+        List<OrderSummary> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Order> counted = countQuery.from(Order.class);
+        countQuery.select(cb.count(counted)).where(filters(cb, counted, criteria));
+        long total = entityManager.createQuery(countQuery).getSingleResult();
+        
+        return new PageImpl<>(content, pageable, total);
+    }
+    
+    private static Predicate[] filters(CriteriaBuilder cb, Root<Order> order, OrderSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getStatus() != null) {
+            predicates.add(cb.equal(order.get("status"), criteria.getStatus()));
+        }
+        if (criteria.getPaymentStatus() != null) {
+            predicates.add(cb.equal(order.get("paymentStatus"), criteria.getPaymentStatus()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.get("createdAt"), criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(order.get("createdAt"), criteria.getCreatedTo()));
+        }
+        if (criteria.getOrderNumberPrefix() != null) {
+            predicates.add(cb.like(order.get("orderNumber"), escapeLike(criteria.getOrderNumberPrefix()) + "%", '\\'));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.Model;
+
+import java.time.LocalDateTime;
+
+// Admin order list filters; null fields are ignored
+public class OrderSearchCriteria {
+    
+    private OrderStatus status;
+    private String paymentStatus;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private String orderNumberPrefix;
+    
+    // Getters and Setters
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+    
+    public LocalDateTime getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(LocalDateTime createdFrom) { this.createdFrom = createdFrom; }
+    
+    public LocalDateTime getCreatedTo() { return createdTo; }
+    public void setCreatedTo(LocalDateTime createdTo) { this.createdTo = createdTo; }
+    
+    public String getOrderNumberPrefix() { return orderNumberPrefix; }
+    public void setOrderNumberPrefix(String orderNumberPrefix) { this.orderNumberPrefix = orderNumberPrefix; }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.Model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Order lifecycle: PENDING -> CONFIRMED -> SHIPPED -> DELIVERED, with
+ * CANCELLED reachable from any state before delivery. DELIVERED and
+ * CANCELLED are final. Stored by name in orders.status.
+ */
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return next != null && next.sources().contains(this);
+    }
+
+    // The states an order may be in to move to this one
+    public Set<OrderStatus> sources() {
+        switch (this) {
+            case CONFIRMED:
+                return EnumSet.of(PENDING);
+            case SHIPPED:
+                return EnumSet.of(CONFIRMED);
+            case DELIVERED:
+                return EnumSet.of(SHIPPED);
+            case CANCELLED:
+                return EnumSet.of(PENDING, CONFIRMED, SHIPPED);
+            default:
+                return EnumSet.noneOf(OrderStatus.class);
+        }
+    }
+
+    // Case-insensitive; IllegalArgumentException for anything that is not a status
+    public static OrderStatus parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order status is required");
+        }
+        return valueOf(value.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.demo.utils.Money;
+
+/**
+ * One row of the admin order list: order columns only, with the item count
+ * instead of the items themselves.
+ */
+public class OrderSummary {
+    
+    private final Long id;
+    private final String orderNumber;
+    private final OrderStatus status;
+    private final String paymentMethod;
+    private final String paymentStatus;
+    private final long totalAmountMinor;
+    private final String shippingFullName;
+    private final String trackingNumber;
+    private final String courierName;
+    private final LocalDateTime createdAt;
+    private final Integer itemCount;
+    
+    public OrderSummary(Long id, String orderNumber, OrderStatus status, String paymentMethod, String paymentStatus,
+                        Long totalAmountMinor, String shippingFullName, String trackingNumber, String courierName,
+                        LocalDateTime createdAt, Integer itemCount) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.status = status;
+        this.paymentMethod = paymentMethod;
+        this.paymentStatus = paymentStatus;
+        this.totalAmountMinor = totalAmountMinor;
+        this.shippingFullName = shippingFullName;
+        this.trackingNumber = trackingNumber;
+        this.courierName = courierName;
+        this.createdAt = createdAt;
+        this.itemCount = itemCount;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public String getOrderNumber() { return orderNumber; }
+    
+    public OrderStatus getStatus() { return status; }
+    
+    public String getPaymentMethod() { return paymentMethod; }
+    
+    public String getPaymentStatus() { return paymentStatus; }
+    
+    public BigDecimal getTotalAmount() { return Money.toMajor(totalAmountMinor); }
+    
+    public String getShippingFullName() { return shippingFullName; }
+    
+    public String getTrackingNumber() { return trackingNumber; }
+    
+    public String getCourierName() { return courierName; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    
+    public Integer getItemCount() { return itemCount; }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.Model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    // Due retries, plus rows whose sender died while holding the claim
+    @Query("SELECT e.id FROM OutboundEmail e WHERE (e.status = 'PENDING' AND e.nextAttemptAt <= :now) "
+            + "OR (e.status = 'SENDING' AND e.leaseUntil < :now) ORDER BY e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
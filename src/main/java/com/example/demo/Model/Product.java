@@ -1,11 +1,22 @@
 package com.example.demo.Model;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.ArrayList;
 
+import org.hibernate.annotations.BatchSize;
+
+import com.example.demo.utils.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
-@Table(name = "products")
+@EntityListeners(ProductEntityListener.class)
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_category_id", columnList = "category, id"),
+    @Index(name = "idx_products_price_id", columnList = "price, id"),
+    @Index(name = "idx_products_rating_id", columnList = "rating, id")
+})
 public class Product {
     
     @Id
@@ -15,8 +26,9 @@ public class Product {
     @Column(nullable = false)
     private String name;
     
-    @Column(nullable = false)
-    private Double price;
+    // Paise; the API and pages show rupees through getPrice()
+    @Column(name = "price", nullable = false)
+    private long priceMinor;
     
     @Column(nullable = false)
     private Integer stock;
@@ -24,7 +36,9 @@ public class Product {
     @Column(nullable = false)
     private String category;
     
+    // Loaded for a whole page of products at once instead of one query per product
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_url")
     private List<String> images = new ArrayList<>();
@@ -44,9 +58,9 @@ public class Product {
     // Constructors
     public Product() {}
     
-    public Product(String name, Double price, Integer stock, String category, String description) {
+    public Product(String name, long priceMinor, Integer stock, String category, String description) {
         this.name = name;
-        this.price = price;
+        this.priceMinor = priceMinor;
         this.stock = stock;
         this.category = category;
         this.description = description;
@@ -69,12 +83,21 @@ public class Product {
         this.name = name;
     }
     
-    public Double getPrice() {
-        return price;
+    @JsonIgnore
+    public long getPriceMinor() {
+        return priceMinor;
+    }
+    
+    public void setPriceMinor(long priceMinor) {
+        this.priceMinor = priceMinor;
+    }
+    
+    public BigDecimal getPrice() {
+        return Money.toMajor(priceMinor);
     }
     
-    public void setPrice(Double price) {
-        this.price = price;
+    public void setPrice(BigDecimal price) {
+        this.priceMinor = Money.toMinor(price);
     }
     
     public Integer getStock() {
@@ -0,0 +1,29 @@
+package com.example.demo.Model;
+
+/**
+ * Published whenever a product row is inserted, updated or deleted so that
+ * in-memory views of the catalog can refresh themselves.
+ */
+public class ProductChangedEvent {
+    
+    private final Long productId;
+    private final Product product;
+    
+    public ProductChangedEvent(Long productId, Product product) {
+        this.productId = productId;
+        this.product = product;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    // Null when the product was deleted
+    public Product getProduct() {
+        return product;
+    }
+    
+    public boolean isRemoved() {
+        return product == null;
+    }
+}
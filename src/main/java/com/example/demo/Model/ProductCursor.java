@@ -0,0 +1,48 @@
+package com.example.demo.Model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque seek position for keyset product listing: the sort value and id of
+ * the last product on the previous page.
+ */
+public class ProductCursor {
+    
+    private final Double sortValue;
+    private final Long id;
+    
+    public ProductCursor(Double sortValue, Long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+    
+    public static ProductCursor of(ProductSort sort, Product last) {
+        return new ProductCursor(sort.sortValue(last), last.getId());
+    }
+    
+    public Double getSortValue() {
+        return sortValue;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String encode() {
+        String raw = (sortValue == null ? "" : sortValue.toString()) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            String value = raw.substring(0, separator);
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return new ProductCursor(value.isEmpty() ? null : Double.valueOf(value), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
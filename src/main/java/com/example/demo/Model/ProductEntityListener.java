@@ -0,0 +1,26 @@
+package com.example.demo.Model;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Instantiated by Hibernate through Spring's bean container, so injection works here
+public class ProductEntityListener {
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product));
+    }
+    
+    @PostRemove
+    public void afterRemove(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), null));
+    }
+}
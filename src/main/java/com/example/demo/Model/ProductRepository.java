@@ -1,14 +1,16 @@
 package com.example.demo.Model;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     
     List<Product> findByActiveTrue();
     
@@ -25,6 +27,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByActiveTrueAndCategoryAndNameOrDescriptionContainingIgnoreCase(
             @Param("category") String category, @Param("search") String search);
     
+    // Active products for a set of ids with images loaded, in one query
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.images WHERE p.active = true AND p.id IN :ids")
+    List<Product> findActiveWithImagesByIdIn(@Param("ids") Collection<Long> ids);
+    
     // Get products by gender category
     List<Product> findByActiveTrueAndCategoryIn(List<String> categories);
 }
\ No newline at end of file
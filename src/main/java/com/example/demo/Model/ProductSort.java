@@ -0,0 +1,45 @@
+package com.example.demo.Model;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Stable orderings supported by keyset product listing. Every ordering ends
+ * with the id so that the seek position is unique, in the same direction as
+ * the main key so that the (column, id) indexes can serve it in one scan.
+ */
+public enum ProductSort {
+    
+    NEWEST(Sort.by(Sort.Order.desc("id"))),
+    PRICE_ASC(Sort.by(Sort.Order.asc("priceMinor"), Sort.Order.asc("id"))),
+    PRICE_DESC(Sort.by(Sort.Order.desc("priceMinor"), Sort.Order.desc("id"))),
+    RATING(Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id")));
+    
+    private final Sort sort;
+    
+    ProductSort(Sort sort) {
+        this.sort = sort;
+    }
+    
+    public Sort getSort() {
+        return sort;
+    }
+    
+    public Double sortValue(Product product) {
+        switch (this) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                return (double) product.getPriceMinor();
+            case RATING:
+                return product.getRating();
+            default:
+                return null;
+        }
+    }
+    
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NEWEST;
+        }
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
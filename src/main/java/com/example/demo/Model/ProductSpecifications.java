@@ -0,0 +1,54 @@
+package com.example.demo.Model;
+
+import org.springframework.data.jpa.domain.Specification;
+
+public final class ProductSpecifications {
+    
+    private ProductSpecifications() {}
+    
+    public static Specification<Product> active() {
+        return (root, query, cb) -> cb.isTrue(root.get("active"));
+    }
+    
+    public static Specification<Product> inCategory(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+    
+    public static Specification<Product> nameOrDescriptionContains(String search) {
+        return (root, query, cb) -> {
+            String pattern = "%" + search.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern));
+        };
+    }
+    
+    // Seek predicate: rows strictly after the cursor in the given ordering
+    public static Specification<Product> after(ProductSort sort, ProductCursor cursor) {
+        return (root, query, cb) -> {
+            var idAfter = cb.greaterThan(root.<Long>get("id"), cursor.getId());
+            var idBefore = cb.lessThan(root.<Long>get("id"), cursor.getId());
+            switch (sort) {
+                case PRICE_ASC:
+                    return cb.or(
+                            cb.greaterThan(root.<Long>get("priceMinor"), priceMinor(cursor)),
+                            cb.and(cb.equal(root.get("priceMinor"), priceMinor(cursor)), idAfter));
+                case PRICE_DESC:
+                    return cb.or(
+                            cb.lessThan(root.<Long>get("priceMinor"), priceMinor(cursor)),
+                            cb.and(cb.equal(root.get("priceMinor"), priceMinor(cursor)), idBefore));
+                case RATING:
+                    return cb.or(
+                            cb.lessThan(root.<Double>get("rating"), cursor.getSortValue()),
+                            cb.and(cb.equal(root.get("rating"), cursor.getSortValue()), idBefore));
+                default:
+                    return idBefore;
+            }
+        };
+    }
+    
+    // Price cursors carry the price in paise
+    private static Long priceMinor(ProductCursor cursor) {
+        return cursor.getSortValue() == null ? null : cursor.getSortValue().longValue();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.demo.Model;
+
+/**
+ * One courier scan, from the tracking webhook or a CSV upload. status is
+ * SHIPPED or DELIVERED; eventTime is ISO-8601, with or without an offset
+ * (local server time if none), and defaults to the time of receipt.
+ */
+public class TrackingEvent {
+
+    private String orderNumber;
+    private String trackingNumber;
+    private String courierName;
+    private String status;
+    private String eventTime;
+
+    public TrackingEvent() {}
+
+    public TrackingEvent(String orderNumber, String trackingNumber, String courierName, String status, String eventTime) {
+        this.orderNumber = orderNumber;
+        this.trackingNumber = trackingNumber;
+        this.courierName = courierName;
+        this.status = status;
+        this.eventTime = eventTime;
+    }
+
+    // Getters and Setters
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+
+    public String getCourierName() { return courierName; }
+    public void setCourierName(String courierName) { this.courierName = courierName; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getEventTime() { return eventTime; }
+    public void setEventTime(String eventTime) { this.eventTime = eventTime; }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.Security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the authenticated {@link com.example.demo.Model.MyAppUser} into a
+ * controller method, or {@code null} when the request is anonymous or the
+ * user no longer exists.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
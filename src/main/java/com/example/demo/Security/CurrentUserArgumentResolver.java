@@ -0,0 +1,55 @@
+package com.example.demo.Security;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.service.UserIdCache;
+
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    
+    @Autowired
+    private UserIdCache userIdCache;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && MyAppUser.class.isAssignableFrom(parameter.getParameterType());
+    }
+    
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        // Anonymous requests have no user principal
+        Principal principal = webRequest.getUserPrincipal();
+        if (principal == null) {
+            return null;
+        }
+        
+        // Bearer tokens carry the user id, so there is nothing to look up
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof JwtPrincipal jwtPrincipal) {
+            return userRepository.getReferenceById(jwtPrincipal.getUserId());
+        }
+        
+        Optional<Long> userId = userIdCache.getUserId(principal.getName());
+        
+        // A reference is enough for ownership checks and foreign keys; the row
+        // is only loaded if a handler actually reads user fields
+        return userId.map(userRepository::getReferenceById).orElse(null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.Security;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.demo.utils.JwtTokenUtil;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates "Authorization: Bearer" requests from the access token's
+ * claims (user id, username, roles) without touching the database. The
+ * resulting security context lives for the request only and is never saved
+ * to a session. Requests with a missing or invalid token simply continue
+ * unauthenticated.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private final JwtTokenUtil jwtTokenUtil;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+    
+    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil) {
+        this.jwtTokenUtil = jwtTokenUtil;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            jwtTokenUtil.parseAccessToken(header.substring(BEARER_PREFIX.length()).trim())
+                    .ifPresent(claims -> authenticate(request, claims));
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private void authenticate(HttpServletRequest request, Claims claims) {
+        Number userId = claims.get(JwtTokenUtil.USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            return;
+        }
+        List<?> roles = claims.get(JwtTokenUtil.ROLES_CLAIM, List.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of()
+                : roles.stream().map(role -> new SimpleGrantedAuthority(String.valueOf(role))).toList();
+        
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                new JwtPrincipal(userId.longValue(), claims.getSubject()), null, authorities);
+        authentication.setDetails(detailsSource.buildDetails(request));
+        
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.Security;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+// Principal of a bearer-token request, built from the token's claims alone
+public class JwtPrincipal implements Principal, Serializable {
+    
+    private final Long userId;
+    private final String username;
+    
+    public JwtPrincipal(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+    
+    public Long getUserId() { return userId; }
+    
+    @Override
+    public String getName() { return username; }
+    
+    @Override
+    public String toString() { return username; }
+}
@@ -1,22 +1,36 @@
 package com.example.demo.Security;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.example.demo.Model.MyAppUserService;
+import com.example.demo.service.GuestCartStore;
+import com.example.demo.service.LoginAttemptService;
+import com.example.demo.service.UserIdCache;
+import com.example.demo.utils.JwtTokenUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -38,37 +52,70 @@ public class SecurityConfig {
     }
     
     @Bean
-    public AuthenticationProvider authenticationProvider(){
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder, LoginAttemptService loginAttemptService){
+        DaoAuthenticationProvider provider = new ThrottledAuthenticationProvider(loginAttemptService);
         provider.setUserDetailsService(appUserService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        // Rehashes outdated passwords (legacy unprefixed or lower cost) after a successful login
+        provider.setUserDetailsPasswordService(appUserService);
         return provider;
     }
     
+    // {bcrypt} at app.security.bcrypt-strength; hashes stored before the prefix
+    // was introduced are plain BCrypt and still match
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength,
+                                                  @Value("${app.security.hashing-threads:0}") int threads,
+                                                  @Value("${app.security.hashing-queue-capacity:64}") int queueCapacity,
+                                                  @Value("${app.security.hashing-timeout:5s}") Duration timeout){
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, hashingThreads, queueCapacity, timeout);
     }
     
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception{
-        return httpSecurity
+    public AuthenticationManager authenticationManager(AuthenticationProvider authenticationProvider){
+        return new ProviderManager(authenticationProvider);
+    }
+    
+    // app.auth.stateless=true drops the HTTP session and form login; API clients
+    // then authenticate with bearer tokens from POST /auth/login only
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, JwtTokenUtil jwtTokenUtil,
+                                                   GuestCartStore guestCartStore, UserIdCache userIdCache,
+                                                   @Value("${app.auth.stateless:false}") boolean stateless) throws Exception{
+        httpSecurity
             .csrf(AbstractHttpConfigurer::disable)
-            .formLogin(form -> form
+            .addFilterBefore(new JwtAuthenticationFilter(jwtTokenUtil), UsernamePasswordAuthenticationFilter.class)
+            .authorizeHttpRequests(registry ->{
+                registry.requestMatchers("/req/**","/auth/login","/css/**","/js/**","/login","/products/**","/addresses/**","/cart/**","/orders/**","/tracking/**").permitAll();
+                registry.anyRequest().authenticated();
+            });
+        
+        if (stateless) {
+            httpSecurity
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .requestCache(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .exceptionHandling(exceptions -> exceptions
+                    .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+        } else {
+            httpSecurity.formLogin(form -> form
                 .loginPage("/login")
                 .successHandler(new AuthenticationSuccessHandler() {
                     @Override
                     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response, org.springframework.security.core.Authentication authentication) throws IOException, ServletException {
+                        // Whatever the visitor put in the cart before logging in
+                        guestCartStore.mergeOnLogin(request, response, userIdCache.getUserId(authentication.getName()).orElse(null));
                         response.sendRedirect("/");
                     }
                 })
                 .permitAll()
-            )
-            .authorizeHttpRequests(registry ->{
-                registry.requestMatchers("/req/**","/css/**","/js/**","/login","/products/**","/addresses/**","/cart/**","/orders/**").permitAll();
-                registry.anyRequest().authenticated();
-            })
-            .build();
+            );
+        }
+        return httpSecurity.build();
     }
     
 }
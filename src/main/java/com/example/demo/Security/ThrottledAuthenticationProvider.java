@@ -0,0 +1,42 @@
+package com.example.demo.Security;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import com.example.demo.service.LoginAttemptService;
+
+// Refuses a username from a client address with too many recent failures before the password is hashed
+public class ThrottledAuthenticationProvider extends DaoAuthenticationProvider {
+    
+    private final LoginAttemptService loginAttemptService;
+    
+    public ThrottledAuthenticationProvider(LoginAttemptService loginAttemptService) {
+        this.loginAttemptService = loginAttemptService;
+    }
+    
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String clientAddress = clientAddress(authentication);
+        if (loginAttemptService.isBlocked(username, clientAddress)) {
+            throw new LockedException("Too many failed login attempts, try again later");
+        }
+        try {
+            Authentication result = super.authenticate(authentication);
+            loginAttemptService.loginSucceeded(username, clientAddress);
+            return result;
+        } catch (BadCredentialsException e) {
+            loginAttemptService.loginFailed(username, clientAddress);
+            throw e;
+        }
+    }
+    
+    // Form login fills in the details; POST /auth/login sets them the same way
+    private static String clientAddress(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+    }
+}
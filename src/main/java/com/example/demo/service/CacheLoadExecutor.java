@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Platform threads that run the database loads of the Caffeine caches.
+ *
+ * A synchronous Caffeine load runs inside ConcurrentHashMap.compute, which
+ * holds a monitor for the whole query; on Java 21 that pins a virtual
+ * thread's carrier. The caches are async instead, built on this executor:
+ * the query runs here, and the caller waits on the future, which parks a
+ * virtual thread without pinning it. A load blocks on a JDBC connection
+ * anyway, so the pool is sized like the JDBC pool.
+ */
+@Component
+public class CacheLoadExecutor implements Executor {
+
+    private final ExecutorService loaders;
+
+    public CacheLoadExecutor(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int threads) {
+        this.loaders = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("cache-load-"));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        loaders.execute(command);
+    }
+
+    // Waits for a cache value, rethrowing what the loader threw rather than a CompletionException
+    public static <V> V join(CompletableFuture<V> value) {
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loaders.shutdownNow();
+    }
+}
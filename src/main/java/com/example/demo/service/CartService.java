@@ -0,0 +1,184 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.Model.CartChangedEvent;
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.CartItemView;
+import com.example.demo.Model.CartOperation;
+import com.example.demo.Model.CartTotals;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+
+@Service
+public class CartService {
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.cart.max-batch-operations:100}")
+    private int maxBatchOperations;
+
+    /**
+     * Applies a list of cart changes all-or-nothing. The cart is read with
+     * one join, products being added that are not already in it with one IN
+     * query, and every insert, update and delete goes out in a single flush
+     * at the end, so the statement count does not grow with the number of
+     * operations the way separate add/update calls do. Operations apply in
+     * order against the cart as it stands after the previous ones; lines
+     * added in the batch have no id yet and cannot be referred to by later
+     * operations.
+     *
+     * A line for the same product, size and colour added by a concurrent
+     * request between the read and the flush makes the insert hit the unique
+     * cart line index. The batch is then applied once more, in a new
+     * transaction, to the cart as it now stands, where the same ADD tops up
+     * that line.
+     */
+    public CartTotals applyBatch(MyAppUser user, List<CartOperation> operations) {
+        try {
+            return transactionTemplate.execute(status -> apply(user, operations));
+        } catch (DataIntegrityViolationException e) {
+            return transactionTemplate.execute(status -> apply(user, operations));
+        }
+    }
+
+    private CartTotals apply(MyAppUser user, List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new CartUpdateException("No cart operations");
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new CartUpdateException("Too many cart operations, at most " + maxBatchOperations);
+        }
+
+        List<CartItem> cart = new ArrayList<>(cartItemRepository.findByUserWithProductAndImages(user));
+        Map<Long, CartItem> itemsById = new HashMap<>();
+        Map<Long, Product> products = new HashMap<>();
+        for (CartItem item : cart) {
+            itemsById.put(item.getId(), item);
+            products.put(item.getProduct().getId(), item.getProduct());
+        }
+
+        Set<Long> missingProductIds = new HashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getType() == CartOperation.Type.ADD && operation.getProductId() != null
+                    && !products.containsKey(operation.getProductId())) {
+                missingProductIds.add(operation.getProductId());
+            }
+        }
+        if (!missingProductIds.isEmpty()) {
+            productRepository.findActiveWithImagesByIdIn(missingProductIds)
+                    .forEach(product -> products.put(product.getId(), product));
+        }
+
+        List<CartItem> added = new ArrayList<>();
+        List<CartItem> removed = new ArrayList<>();
+        for (CartOperation operation : operations) {
+            if (operation.getType() == null) {
+                throw new CartUpdateException("Operation type is required");
+            }
+            switch (operation.getType()) {
+                case ADD:
+                    add(user, operation, products, cart, added);
+                    break;
+                case UPDATE:
+                    if (operation.getQuantity() == null) {
+                        throw new CartUpdateException("Quantity is required");
+                    }
+                    if (operation.getQuantity() <= 0) {
+                        removed.add(remove(operation.getItemId(), itemsById, cart));
+                    } else {
+                        CartItem item = existing(operation.getItemId(), itemsById);
+                        if (item.getProduct().getStock() < operation.getQuantity()) {
+                            throw new CartUpdateException("Insufficient stock for " + item.getProduct().getName());
+                        }
+                        item.setQuantity(operation.getQuantity());
+                    }
+                    break;
+                case REMOVE:
+                    removed.add(remove(operation.getItemId(), itemsById, cart));
+                    break;
+            }
+        }
+
+        // Quantity changes on loaded lines are picked up by dirty checking
+        cartItemRepository.saveAll(added);
+        cartItemRepository.deleteAll(removed);
+        cartItemRepository.flush();
+        eventPublisher.publishEvent(new CartChangedEvent(user.getId()));
+
+        return CartTotals.of(cart.stream().map(CartItemView::from).toList());
+    }
+
+    // Same as /cart/add: an existing line with the same product, size and color is topped up
+    private void add(MyAppUser user, CartOperation operation, Map<Long, Product> products,
+                     List<CartItem> cart, List<CartItem> added) {
+        if (operation.getQuantity() == null || operation.getQuantity() <= 0) {
+            throw new CartUpdateException("Quantity must be positive");
+        }
+        Product product = operation.getProductId() == null ? null : products.get(operation.getProductId());
+        if (product == null || !Boolean.TRUE.equals(product.getActive())) {
+            throw new CartUpdateException("Product not found");
+        }
+
+        for (CartItem item : cart) {
+            if (item.getProduct().getId().equals(product.getId())
+                    && Objects.equals(item.getSize(), operation.getSize())
+                    && Objects.equals(item.getColor(), operation.getColor())) {
+                int newQuantity = item.getQuantity() + operation.getQuantity();
+                if (product.getStock() < newQuantity) {
+                    throw new CartUpdateException("Insufficient stock for " + product.getName());
+                }
+                item.setQuantity(newQuantity);
+                return;
+            }
+        }
+
+        if (product.getStock() < operation.getQuantity()) {
+            throw new CartUpdateException("Insufficient stock for " + product.getName());
+        }
+        CartItem item = new CartItem(user, product, operation.getQuantity(), operation.getSize(), operation.getColor());
+        cart.add(item);
+        added.add(item);
+    }
+
+    private CartItem remove(Long itemId, Map<Long, CartItem> itemsById, List<CartItem> cart) {
+        CartItem item = existing(itemId, itemsById);
+        itemsById.remove(itemId);
+        cart.remove(item);
+        return item;
+    }
+
+    // Only lines loaded for this user are found, so other users' items are rejected too
+    private CartItem existing(Long itemId, Map<Long, CartItem> itemsById) {
+        CartItem item = itemId == null ? null : itemsById.get(itemId);
+        if (item == null) {
+            throw new CartUpdateException("Cart item not found");
+        }
+        return item;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.Model.CartChangedEvent;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.CartSummary;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductChangedEvent;
+import com.example.demo.utils.Money;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Per-user cart summaries for the header badge. A miss costs one aggregate
+ * query over the user's cart_items rows (served by the unique index on the
+ * cart line); hits cost nothing. A user's entry is dropped on every
+ * CartChangedEvent once its transaction commits, and all entries go when a
+ * product changes, since prices feed the total.
+ *
+ * Summaries load on the CacheLoadExecutor, so they are read from committed
+ * rows and a miss never pins a virtual thread.
+ *
+ * Eviction is local to this node, so another node may serve a summary that
+ * is stale by up to the TTL.
+ */
+@Service
+public class CartSummaryService {
+
+    private final CatalogCache catalogCache;
+
+    private final AsyncLoadingCache<Long, CartSummary> summaries;
+
+    @Autowired
+    public CartSummaryService(CartItemRepository cartItemRepository,
+                              CatalogCache catalogCache,
+                              CacheLoadExecutor cacheLoadExecutor,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cart.summary-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${app.cart.summary-cache.ttl:1m}") Duration ttl) {
+        this.catalogCache = catalogCache;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(cacheLoadExecutor)
+                .recordStats()
+                .buildAsync(cartItemRepository::summarize);
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "cartSummaries");
+    }
+
+    public CartSummary summary(Long userId) {
+        return CacheLoadExecutor.join(summaries.get(userId));
+    }
+
+    // Guest carts are already in memory; only prices come from the catalog
+    public CartSummary guestSummary(List<GuestCartStore.Line> lines) {
+        long itemCount = 0;
+        long totalQuantity = 0;
+        long totalAmountMinor = 0;
+        for (GuestCartStore.Line line : lines) {
+            Optional<Product> product = catalogCache.findActiveById(line.productId());
+            if (product.isPresent()) {
+                itemCount++;
+                totalQuantity += line.quantity();
+                totalAmountMinor = Math.addExact(totalAmountMinor, Money.times(product.get().getPriceMinor(), line.quantity()));
+            }
+        }
+        return itemCount == 0 ? CartSummary.EMPTY : new CartSummary(itemCount, totalQuantity, totalAmountMinor);
+    }
+
+    // After commit, so a concurrent read cannot cache the old totals again
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        summaries.synchronous().invalidate(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        summaries.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when a cart change is rejected; the message is safe to show to the
+ * customer. Being unchecked, it rolls back the whole batch.
+ */
+public class CartUpdateException extends RuntimeException {
+    
+    public CartUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductChangedEvent;
+import com.example.demo.Model.ProductRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of active products, by id and by category. Entries are
+ * detached entities with their images already loaded, bounded by size
+ * (Caffeine's TinyLFU eviction) and by TTL, and dropped whenever a product is
+ * written.
+ *
+ * Both caches are loading caches, so besides hits and misses the metrics
+ * include load counts and load time (cache.load, cache.load.duration). They
+ * load on the CacheLoadExecutor, so a miss never pins a virtual thread.
+ *
+ * Misses load in a new transaction. Under open-session-in-view a joined
+ * transaction would use the request's EntityManager, and the cached instance
+ * would stay managed by that request, which could flush changes made to it
+ * and share it with the next one. A new transaction gets its own
+ * EntityManager, which is closed before the entry is stored.
+ *
+ * Stock is decremented with SQL at checkout and does not raise product
+ * events, so the cached stock can lag by up to the TTL. It is only used for
+ * the advisory check when adding to the cart; checkout enforces the real
+ * value.
+ */
+@Service
+public class CatalogCache {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AsyncLoadingCache<Long, Optional<Product>> productsById;
+    private final AsyncLoadingCache<String, List<Product>> productsByCategory;
+
+    @Autowired
+    public CatalogCache(ProductRepository productRepository,
+                        PlatformTransactionManager transactionManager,
+                        CacheLoadExecutor cacheLoadExecutor,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.catalog-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${app.catalog-cache.category-maximum-size:100}") long categoryMaximumSize,
+                        @Value("${app.catalog-cache.ttl:5m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(cacheLoadExecutor)
+                .recordStats()
+                .buildAsync(this::loadActiveById);
+        this.productsByCategory = Caffeine.newBuilder()
+                .maximumSize(categoryMaximumSize)
+                .expireAfterWrite(ttl)
+                .executor(cacheLoadExecutor)
+                .recordStats()
+                .buildAsync(this::loadActiveByCategory);
+        CaffeineCacheMetrics.monitor(meterRegistry, productsById, "catalog.productsById");
+        CaffeineCacheMetrics.monitor(meterRegistry, productsByCategory, "catalog.productsByCategory");
+    }
+
+    public Optional<Product> findActiveById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return CacheLoadExecutor.join(productsById.get(id));
+    }
+
+    public List<Product> findActiveByCategory(String category) {
+        return CacheLoadExecutor.join(productsByCategory.get(category));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productsById.synchronous().invalidate(event.getProductId());
+        // The product may have moved between categories, and lists are few
+        productsByCategory.synchronous().invalidateAll();
+    }
+
+    public void invalidateAll() {
+        productsById.synchronous().invalidateAll();
+        productsByCategory.synchronous().invalidateAll();
+    }
+
+    private Optional<Product> loadActiveById(Long id) {
+        return readOnlyTransaction.execute(status -> productRepository.findById(id)
+                .filter(Product::getActive)
+                .map(CatalogCache::loadImages));
+    }
+
+    private List<Product> loadActiveByCategory(String category) {
+        return readOnlyTransaction.execute(status -> {
+            List<Product> products = productRepository.findByActiveTrueAndCategory(category);
+            products.forEach(CatalogCache::loadImages);
+            return List.copyOf(products);
+        });
+    }
+
+    // Images are lazy; load them while the session is open so cached copies serialize
+    private static Product loadImages(Product product) {
+        Hibernate.initialize(product.getImages());
+        return product;
+    }
+}
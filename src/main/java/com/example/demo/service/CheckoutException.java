@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when an order cannot be placed; the message is safe to show to the
+ * customer. Being unchecked, it rolls back the checkout transaction.
+ */
+public class CheckoutException extends RuntimeException {
+    
+    public CheckoutException(String message) {
+        super(message);
+    }
+}
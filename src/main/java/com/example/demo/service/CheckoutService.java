@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.Address;
+import com.example.demo.Model.AddressRepository;
+import com.example.demo.Model.CartChangedEvent;
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderItem;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+
+@Service
+public class CheckoutService {
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @Autowired
+    private AddressRepository addressRepository;
+    
+    @Autowired
+    private StockReservationService stockReservationService;
+    
+    @Autowired
+    private HotInventoryService hotInventoryService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+    
+    /**
+     * Turns the user's cart into an order. The statement count does not grow
+     * with the number of lines: cart rows and products are read with one
+     * join, the images for the order items with one batched query, order
+     * items are inserted as one JDBC batch through the cascade on
+     * Order.orderItems, and the cart is cleared with one bulk delete. Stock
+     * for all lines is reserved in one batch of conditional updates; if any
+     * product is short, nothing is written.
+     */
+    @Transactional
+    public Order placeOrder(MyAppUser user, Long addressId, String paymentMethod) {
+        List<CartItem> cartItems = cartItemRepository.findByUserWithProduct(user);
+        
+        if (cartItems.isEmpty()) {
+            throw new CheckoutException("Cart is empty");
+        }
+        
+        Optional<Address> addressOpt = addressId == null ? Optional.empty() : addressRepository.findById(addressId);
+        
+        if (!addressOpt.isPresent() || !addressOpt.get().getUser().getId().equals(user.getId())) {
+            throw new CheckoutException("Invalid address");
+        }
+        
+        Address address = addressOpt.get();
+        
+        // Same product in several sizes/colors is reserved as one line;
+        // hot products are reserved in memory and settled later
+        Map<Long, Integer> quantities = new HashMap<>();
+        Map<Long, Integer> hotQuantities = new HashMap<>();
+        for (CartItem cartItem : cartItems) {
+            Long productId = cartItem.getProduct().getId();
+            Map<Long, Integer> target = hotInventoryService.isHot(productId) ? hotQuantities : quantities;
+            target.merge(productId, cartItem.getQuantity(), Integer::sum);
+        }
+        if (!hotQuantities.isEmpty()) {
+            hotInventoryService.reserve(hotQuantities);
+        }
+        stockReservationService.reserve(quantities);
+        
+        // Calculate total, exactly, in paise
+        long totalAmountMinor = 0;
+        for (CartItem cartItem : cartItems) {
+            totalAmountMinor = Math.addExact(totalAmountMinor, cartItem.getSubtotalMinor());
+        }
+        
+        // Create order
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderNumber(orderNumberGenerator.next());
+        order.setTotalAmountMinor(totalAmountMinor);
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentMethod(paymentMethod);
+        order.setPaymentStatus("PENDING");
+        
+        // Set estimated delivery date (3-5 business days from now)
+        LocalDateTime estimatedDelivery = LocalDateTime.now().plusDays(4); // 4 days for 3-5 business days
+        order.setEstimatedDeliveryDate(estimatedDelivery);
+        
+        // Copy address details
+        order.setShippingFullName(address.getFullName());
+        order.setShippingAddressLine1(address.getAddressLine1());
+        order.setShippingAddressLine2(address.getAddressLine2());
+        order.setShippingCity(address.getCity());
+        order.setShippingState(address.getState());
+        order.setShippingPincode(address.getPincode());
+        order.setShippingPhoneNumber(address.getPhoneNumber());
+        
+        for (CartItem cartItem : cartItems) {
+            OrderItem orderItem = new OrderItem(order, cartItem.getProduct(), cartItem.getQuantity(),
+                    cartItem.getSize(), cartItem.getColor());
+            orderItem.setStockSettled(!hotQuantities.containsKey(cartItem.getProduct().getId()));
+            order.getOrderItems().add(orderItem);
+        }
+        
+        // Items are persisted by cascade and flushed together with the order
+        order = orderRepository.save(order);
+        
+        // Clear cart
+        cartItemRepository.deleteByUser(user);
+        eventPublisher.publishEvent(new CartChangedEvent(user.getId()));
+        
+        return order;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.Model.OutboundEmail;
+import com.example.demo.Model.OutboundEmailRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Sends outbound email off the request thread.
+ *
+ * Each message is first written to the email_outbox table and its id handed
+ * to a bounded in-memory queue. A small pool of workers drains the queue in
+ * batches and sends each batch over one SMTP connection. Failed messages are
+ * retried with exponential backoff until max-attempts. A scheduled poll
+ * re-queues anything that is due, which covers restarts, retries, and ids
+ * that did not fit in the queue.
+ *
+ * Every instance polls the same table, so a worker first claims its batch:
+ * a conditional UPDATE per row moves it to SENDING with a lease, and only
+ * rows whose update count is 1 are sent. Of several instances that queued
+ * the same id, one sends it and the others skip it. If an instance dies
+ * mid-send its lease runs out and the poll of any instance takes the row
+ * over, so delivery is at-least-once.
+ */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private static final String CLAIM_SQL = "UPDATE email_outbox SET status = 'SENDING', lease_until = ? "
+            + "WHERE id = ? AND ((status = 'PENDING' AND next_attempt_at <= ?) OR (status = 'SENDING' AND lease_until < ?))";
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.mail.username}")
+    private String from;
+
+    @Value("${app.mail.workers:2}")
+    private int workerCount;
+
+    @Value("${app.mail.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.retry-backoff:30s}")
+    private Duration retryBackoff;
+
+    @Value("${app.mail.lease:5m}")
+    private Duration lease;
+
+    private InternetAddress fromAddress;
+    private BlockingQueue<Long> queue;
+    // Ids queued or being sent, so the poll does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        try {
+            fromAddress = new InternetAddress(from);
+        } catch (AddressException e) {
+            throw new IllegalStateException("Invalid spring.mail.username: " + from, e);
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("mail-worker-"));
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stores the message in the outbox and queues it for sending. Inside a
+     * transaction the message is only queued once that transaction commits.
+     */
+    public void enqueue(String recipient, String subject, String htmlBody) {
+        Long id = outboundEmailRepository.save(new OutboundEmail(recipient, subject, htmlBody)).getId();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(id);
+                }
+            });
+        } else {
+            offer(id);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.poll-interval-ms:10000}")
+    public void queueDueMessages() {
+        int room = queue.remainingCapacity();
+        if (room > 0) {
+            outboundEmailRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, room)).forEach(this::offer);
+        }
+    }
+
+    private void offer(Long id) {
+        // A full queue is fine: the row stays PENDING and the next poll picks it up
+        if (inFlight.add(id) && !queue.offer(id)) {
+            inFlight.remove(id);
+        }
+    }
+
+    private void work() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Email batch failed, it will be retried by the outbox poll", e);
+            } finally {
+                inFlight.removeAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimed = claim(ids, now);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Map<MimeMessage, OutboundEmail> messages = new LinkedHashMap<>();
+        List<OutboundEmail> emails = outboundEmailRepository.findAllById(claimed);
+        for (OutboundEmail email : emails) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                retryLater(email, e, now);
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        if (!messages.isEmpty()) {
+            try {
+                // One connection for the whole batch
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    batchFailure = e;
+                }
+            } catch (MailException e) {
+                batchFailure = e;
+            }
+        }
+
+        for (Map.Entry<MimeMessage, OutboundEmail> entry : messages.entrySet()) {
+            Exception failure = batchFailure != null ? batchFailure : failures.get(entry.getKey());
+            OutboundEmail email = entry.getValue();
+            if (failure == null) {
+                email.setStatus(OutboundEmail.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                email.setLeaseUntil(null);
+            } else {
+                retryLater(email, failure, now);
+            }
+        }
+        outboundEmailRepository.saveAll(emails);
+    }
+
+    // The ids whose row this instance now holds; the rest are sent or held elsewhere
+    List<Long> claim(List<Long> ids, LocalDateTime now) {
+        Timestamp at = Timestamp.valueOf(now);
+        Timestamp until = Timestamp.valueOf(now.plus(lease));
+        int[][] counts = jdbcTemplate.batchUpdate(CLAIM_SQL, ids, ids.size(), (ps, id) -> {
+            ps.setTimestamp(1, until);
+            ps.setLong(2, id);
+            ps.setTimestamp(3, at);
+            ps.setTimestamp(4, at);
+        });
+        List<Long> claimed = new ArrayList<>(ids.size());
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    claimed.add(ids.get(index));
+                }
+                index++;
+            }
+        }
+        return claimed;
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        // Single text/html part: the body has no attachments or inline images
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, false, "UTF-8");
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setFrom(fromAddress);
+        helper.setText(email.getBody(), true);
+        return mimeMessage;
+    }
+
+    private void retryLater(OutboundEmail email, Exception failure, LocalDateTime now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLeaseUntil(null);
+        String message = String.valueOf(failure.getMessage());
+        email.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (attempts >= maxAttempts) {
+            email.setStatus(OutboundEmail.FAILED);
+            log.warn("Giving up on email {} to {} after {} attempts: {}", email.getId(), email.getRecipient(), attempts, message);
+            return;
+        }
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(MAX_BACKOFF) > 0) {
+            backoff = MAX_BACKOFF;
+        }
+        email.setStatus(OutboundEmail.PENDING);
+        email.setNextAttemptAt(now.plus(backoff));
+        log.info("Email {} to {} failed (attempt {}), retrying in {}: {}", email.getId(), email.getRecipient(), attempts, backoff, message);
+    }
+}
@@ -2,20 +2,19 @@ package com.example.demo.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
-
-import jakarta.mail.internet.MimeMessage;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
 public class EmailService {
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private EmailTemplateRenderer emailTemplateRenderer;
 
-    @Value("${spring.mail.username}")
-    private String from;
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
 
     public void sendVerificationEmail(String email, String verificationToken) {
         String subject = "Email Verification";
@@ -35,33 +34,18 @@ public class EmailService {
 
     private void sendEmail(String email, String token, String subject, String path, String message) {
         try {
-            String actionUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+            String actionUrl = UriComponentsBuilder.fromHttpUrl(baseUrl)
                     .path(path)
                     .queryParam("token", token)
                     .toUriString();
 
-            String content = """
-                    <div style="font-family: Arial, sans-serif; max-width: 600px; margin: auto; padding: 20px; border-radius: 8px; background-color: #f9f9f9; text-align: center;">
-                        <h2 style="color: #333;">%s</h2>
-                        <p style="font-size: 16px; color: #555;">%s</p>
-                        <a href="%s" style="display: inline-block; margin: 20px 0; padding: 10px 20px; font-size: 16px; color: #fff; background-color: #007bff; text-decoration: none; border-radius: 5px;">Proceed</a>
-                        <p style="font-size: 14px; color: #777;">Or copy and paste this link into your browser:</p>
-                        <p style="font-size: 14px; color: #007bff;">%s</p>
-                        <p style="font-size: 12px; color: #aaa;">This is an automated message. Please do not reply.</p>
-                    </div>
-                """.formatted(subject, message, actionUrl, actionUrl);
-
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
+            String content = emailTemplateRenderer.renderAction(subject, message, actionUrl);
 
-            helper.setTo(email);
-            helper.setSubject(subject);
-            helper.setFrom(from);
-            helper.setText(content, true);
-            mailSender.send(mimeMessage);
+            // Sent in the background; the request only pays for the outbox insert
+            emailDispatcher.enqueue(email, subject, content);
 
         } catch (Exception e) {
-            System.err.println("Failed to send email: " + e.getMessage());
+            System.err.println("Failed to queue email: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
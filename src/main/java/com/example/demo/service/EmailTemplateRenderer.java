@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+import java.io.StringWriter;
+import java.util.Locale;
+
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Renders email bodies from templates/email. The engine is private to email
+ * (separate from the MVC view engine), keeps parsed templates in its cache
+ * and compiles SpEL expressions, and the templates are parsed once at
+ * startup. Rendering needs no request, so it can run on any thread.
+ */
+@Service
+public class EmailTemplateRenderer {
+
+    public static final String ACTION_TEMPLATE = "action";
+
+    // Larger buffers are dropped after use instead of staying pinned to the thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final SpringTemplateEngine templateEngine;
+    private final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(4096));
+
+    public EmailTemplateRenderer() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/email/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        this.templateEngine = new SpringTemplateEngine();
+        this.templateEngine.setTemplateResolver(resolver);
+        this.templateEngine.setEnableSpringELCompiler(true);
+    }
+
+    @PostConstruct
+    public void precompile() {
+        renderAction("", "", "http://localhost/");
+    }
+
+    // Heading, message and a single call-to-action link
+    public String renderAction(String title, String message, String actionUrl) {
+        Context context = new Context(Locale.ROOT);
+        context.setVariable("title", title);
+        context.setVariable("message", message);
+        context.setVariable("actionUrl", actionUrl);
+
+        StringWriter buffer = buffers.get();
+        buffer.getBuffer().setLength(0);
+        templateEngine.process(ACTION_TEMPLATE, context, buffer);
+        String html = buffer.toString();
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return html;
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.demo.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.Model.CartChangedEvent;
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Carts of anonymous visitors, held in memory and keyed by a random id in the
+ * GUEST_CART cookie. Nothing is written to cart_items until the visitor logs
+ * in, when the lines are merged into their cart; abandoned carts just expire.
+ *
+ * A cart is an immutable array of lines replaced atomically on every change,
+ * and the store is bounded by the total number of lines (Caffeine weigher)
+ * and by idle time. It lives on this node only, so without sticky sessions a
+ * guest may see an empty cart on another node.
+ */
+@Service
+public class GuestCartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(GuestCartStore.class);
+
+    public static final String COOKIE_NAME = "GUEST_CART";
+
+    public enum AddResult { ADDED, INSUFFICIENT_STOCK, CART_FULL }
+
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final MyAppUserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final int maxLinesPerCart;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Cache<String, GuestCart> carts;
+
+    @Autowired
+    public GuestCartStore(CartItemRepository cartItemRepository,
+                          ProductRepository productRepository,
+                          MyAppUserRepository userRepository,
+                          CatalogCache catalogCache,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.guest-cart.maximum-lines:200000}") long maximumLines,
+                          @Value("${app.guest-cart.max-lines-per-cart:50}") int maxLinesPerCart,
+                          @Value("${app.guest-cart.ttl:2d}") Duration ttl) {
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.catalogCache = catalogCache;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.maxLinesPerCart = maxLinesPerCart;
+        this.ttl = ttl;
+
+        this.carts = Caffeine.newBuilder()
+                .maximumWeight(maximumLines)
+                .weigher((String id, GuestCart cart) -> 1 + cart.lines.length)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, carts, "guestCarts");
+    }
+
+    public Optional<String> cartId(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return Optional.empty();
+        }
+        return Arrays.stream(cookies)
+                .filter(cookie -> COOKIE_NAME.equals(cookie.getName()))
+                .map(Cookie::getValue)
+                .filter(value -> value != null && !value.isBlank())
+                .findFirst();
+    }
+
+    // Reuses the visitor's cookie, or issues a new one
+    public String getOrCreateCartId(HttpServletRequest request, HttpServletResponse response) {
+        Optional<String> existing = cartId(request);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        String cartId = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        setCookie(response, cartId, ttl);
+        return cartId;
+    }
+
+    public List<Line> lines(String cartId) {
+        GuestCart cart = carts.getIfPresent(cartId);
+        return cart == null ? List.of() : List.of(cart.lines);
+    }
+
+    // Adds to an existing line with the same product, size and colour, never beyond stock
+    public AddResult add(String cartId, Long productId, String size, String color, int quantity, int stock) {
+        AddResult[] result = new AddResult[1];
+        carts.asMap().compute(cartId, (id, cart) -> {
+            GuestCart current = cart == null ? GuestCart.EMPTY : cart;
+            for (int i = 0; i < current.lines.length; i++) {
+                Line line = current.lines[i];
+                if (line.matches(productId, size, color)) {
+                    int newQuantity = line.quantity() + quantity;
+                    if (stock < newQuantity) {
+                        result[0] = AddResult.INSUFFICIENT_STOCK;
+                        return cart;
+                    }
+                    result[0] = AddResult.ADDED;
+                    return current.with(i, line.withQuantity(newQuantity));
+                }
+            }
+            if (current.lines.length >= maxLinesPerCart) {
+                result[0] = AddResult.CART_FULL;
+                return cart;
+            }
+            if (stock < quantity) {
+                result[0] = AddResult.INSUFFICIENT_STOCK;
+                return cart;
+            }
+            result[0] = AddResult.ADDED;
+            return current.append(new Line(current.nextLineId, productId, size, color, quantity));
+        });
+        return result[0];
+    }
+
+    public Optional<Line> line(String cartId, long lineId) {
+        return lines(cartId).stream().filter(line -> line.id() == lineId).findFirst();
+    }
+
+    // A quantity of zero or less removes the line; false if there is no such line
+    public boolean update(String cartId, long lineId, int quantity) {
+        boolean[] found = new boolean[1];
+        carts.asMap().computeIfPresent(cartId, (id, cart) -> {
+            for (int i = 0; i < cart.lines.length; i++) {
+                if (cart.lines[i].id() == lineId) {
+                    found[0] = true;
+                    return quantity <= 0 ? cart.without(i) : cart.with(i, cart.lines[i].withQuantity(quantity));
+                }
+            }
+            return cart;
+        });
+        return found[0];
+    }
+
+    public boolean remove(String cartId, long lineId) {
+        return update(cartId, lineId, 0);
+    }
+
+    /**
+     * Moves the visitor's guest cart into the user's cart and clears the
+     * cookie. Lines are merged like repeated adds: quantities for the same
+     * product, size and colour are summed, capped at the current stock, and
+     * products that are no longer active are dropped. A line the user adds
+     * from another tab while the merge runs makes an insert hit the unique
+     * cart line index; the merge is then retried once and tops that line up.
+     * Failures are logged and leave the guest cart in place, so they never
+     * fail the login.
+     */
+    public void mergeOnLogin(HttpServletRequest request, HttpServletResponse response, Long userId) {
+        Optional<String> cartId = cartId(request);
+        if (!cartId.isPresent() || userId == null) {
+            return;
+        }
+        // Claim the cart so a concurrent login cannot merge it twice
+        GuestCart cart = carts.asMap().remove(cartId.get());
+        if (cart != null && cart.lines.length > 0) {
+            try {
+                MyAppUser user = userRepository.getReferenceById(userId);
+                try {
+                    merge(user, cart.lines);
+                } catch (DataIntegrityViolationException e) {
+                    merge(user, cart.lines);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not merge guest cart into the cart of user {}", userId, e);
+                carts.asMap().putIfAbsent(cartId.get(), cart);
+                return;
+            }
+        }
+        setCookie(response, "", Duration.ZERO);
+    }
+
+    private void merge(MyAppUser user, Line[] lines) {
+        transaction.executeWithoutResult(status -> {
+            mergeInto(user, lines);
+            eventPublisher.publishEvent(new CartChangedEvent(user.getId()));
+        });
+    }
+
+    private void mergeInto(MyAppUser user, Line[] lines) {
+        for (Line line : lines) {
+            Optional<Product> cached = catalogCache.findActiveById(line.productId());
+            if (!cached.isPresent()) {
+                continue;
+            }
+            int stock = cached.get().getStock();
+            Product product = productRepository.getReferenceById(line.productId());
+            Optional<CartItem> existingItem = cartItemRepository.findByUserAndProductAndSizeAndColor(
+                    user, product, line.size(), line.color());
+            if (existingItem.isPresent()) {
+                CartItem item = existingItem.get();
+                item.setQuantity(Math.min(stock, item.getQuantity() + line.quantity()));
+                cartItemRepository.save(item);
+            } else if (stock > 0) {
+                cartItemRepository.save(new CartItem(user, product, Math.min(stock, line.quantity()), line.size(), line.color()));
+            }
+        }
+    }
+
+    private void setCookie(HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .path("/")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    // One cart line; the id is only unique within its cart
+    public record Line(long id, Long productId, String size, String color, int quantity) {
+
+        boolean matches(Long productId, String size, String color) {
+            return this.productId.equals(productId) && Objects.equals(this.size, size) && Objects.equals(this.color, color);
+        }
+
+        Line withQuantity(int quantity) {
+            return new Line(id, productId, size, color, quantity);
+        }
+    }
+
+    private static final class GuestCart {
+
+        static final GuestCart EMPTY = new GuestCart(new Line[0], 1);
+
+        final Line[] lines;
+        final long nextLineId;
+
+        GuestCart(Line[] lines, long nextLineId) {
+            this.lines = lines;
+            this.nextLineId = nextLineId;
+        }
+
+        GuestCart append(Line line) {
+            Line[] copy = Arrays.copyOf(lines, lines.length + 1);
+            copy[lines.length] = line;
+            return new GuestCart(copy, nextLineId + 1);
+        }
+
+        GuestCart with(int index, Line line) {
+            Line[] copy = lines.clone();
+            copy[index] = line;
+            return new GuestCart(copy, nextLineId);
+        }
+
+        GuestCart without(int index) {
+            Line[] copy = new Line[lines.length - 1];
+            System.arraycopy(lines, 0, copy, 0, index);
+            System.arraycopy(lines, index + 1, copy, index, lines.length - index - 1);
+            return new GuestCart(copy, nextLineId);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.Model.ProductChangedEvent;
+
+/**
+ * Optional in-process inventory for a configured set of hot products.
+ *
+ * Reservations for these products are granted by a {@link StripedStockCounter}
+ * instead of a row update, and their order items are written with
+ * stock_settled = false. A scheduled job settles those items into
+ * products.stock in one statement, so the products row is touched once per
+ * interval rather than once per checkout. Because the pending deltas live in
+ * committed order_items rows, nothing is lost on a crash: startup settles any
+ * leftovers before loading the counters.
+ *
+ * Stock changed outside of checkout (a restock, a correction in the admin) is
+ * picked up by reconciling: each counter remembers the products.stock it has
+ * accounted for, and the difference to the current row is added to or taken
+ * from the counter. This runs on every flush and whenever a hot product is
+ * saved.
+ *
+ * The counters are per node, so the mode is meant for single-instance drops.
+ */
+@Service
+public class HotInventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotInventoryService.class);
+
+    // Moves every unsettled order item into products.stock, consolidated per product
+    private static final String SETTLE_SQL = """
+            WITH settled AS (
+                UPDATE order_items SET stock_settled = true
+                WHERE stock_settled = false
+                RETURNING product_id, quantity
+            )
+            UPDATE products p SET stock = p.stock - s.quantity
+            FROM (SELECT product_id, SUM(quantity) AS quantity FROM settled GROUP BY product_id) s
+            WHERE p.id = s.product_id
+            RETURNING p.id, s.quantity
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.inventory.hot-product-ids:}")
+    private Set<Long> hotProductIds;
+
+    @Value("${app.inventory.stripes:0}")
+    private int stripes;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+
+    // products.stock as last accounted for in each counter; guarded by accountingLock
+    private final Map<Long, Long> accountedStock = new HashMap<>();
+
+    // Not synchronized: JDBC runs while it is held, and that would pin a virtual thread's carrier
+    private final ReentrantLock accountingLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCounters() {
+        if (hotProductIds.isEmpty()) {
+            return;
+        }
+        accountingLock.lock();
+        try {
+            // Crash recovery: apply whatever the previous run had not flushed yet
+            settle();
+
+            int stripeCount = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+            for (Long productId : hotProductIds) {
+                List<Integer> stock = jdbcTemplate.queryForList(
+                        "SELECT stock FROM products WHERE id = ? AND active = true", Integer.class, productId);
+                if (!stock.isEmpty()) {
+                    counters.put(productId, new StripedStockCounter(stock.get(0), stripeCount));
+                    accountedStock.put(productId, stock.get(0).longValue());
+                }
+            }
+        } finally {
+            accountingLock.unlock();
+        }
+        log.info("Hot inventory enabled for products {}", counters.keySet());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (counters.containsKey(event.getProductId())) {
+            accountingLock.lock();
+            try {
+                reconcile(List.of(event.getProductId()));
+            } finally {
+                accountingLock.unlock();
+            }
+        }
+    }
+
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+
+    /**
+     * Reserves hot-product quantities from the in-memory counters. All lines
+     * succeed or none do. When called inside a transaction the reservation is
+     * handed back automatically if that transaction rolls back.
+     */
+    public void reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> acquired = new HashMap<>();
+        List<Long> rejected = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            StripedStockCounter counter = counters.get(line.getKey());
+            if (counter != null && counter.tryAcquire(line.getValue())) {
+                acquired.put(line.getKey(), line.getValue());
+            } else {
+                rejected.add(line.getKey());
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            release(acquired);
+            throw new InsufficientStockException(rejected);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(acquired);
+                    }
+                }
+            });
+        }
+    }
+
+    // For reservations of a cancelled order; handed back only if the cancel commits
+    public void releaseAfterCommit(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(quantities);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(quantities);
+            }
+        });
+    }
+
+    public void release(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            StripedStockCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.release(quantity);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:1000}")
+    public void flush() {
+        if (counters.isEmpty()) {
+            return;
+        }
+        accountingLock.lock();
+        try {
+            settle();
+            reconcile(counters.keySet());
+        } finally {
+            accountingLock.unlock();
+        }
+    }
+
+    // Settled quantities were taken from the counter at checkout, so they only move the accounted stock.
+    // Callers hold accountingLock, as they do for reconcile.
+    private void settle() {
+        Map<Long, Long> settled = new HashMap<>();
+        jdbcTemplate.query(SETTLE_SQL, (RowCallbackHandler) rs -> settled.put(rs.getLong(1), rs.getLong(2)));
+        settled.forEach((productId, quantity) -> accountedStock.computeIfPresent(productId, (id, stock) -> stock - quantity));
+        if (!settled.isEmpty()) {
+            log.debug("Settled hot inventory for {} products", settled.size());
+        }
+    }
+
+    private void reconcile(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            StripedStockCounter counter = counters.get(productId);
+            if (counter == null) {
+                continue;
+            }
+            List<Integer> stock = jdbcTemplate.queryForList(
+                    "SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+            if (stock.isEmpty()) {
+                continue;
+            }
+            long difference = stock.get(0) - accountedStock.get(productId);
+            if (difference > 0) {
+                counter.release(difference);
+            } else if (difference < 0) {
+                // Whatever is already reserved stays reserved; the rest is retried on the next reconcile
+                difference = -counter.drain(-difference);
+            }
+            if (difference != 0) {
+                accountedStock.merge(productId, difference, Long::sum);
+                log.info("Hot inventory for product {} adjusted by {}", productId, difference);
+            }
+        }
+    }
+}
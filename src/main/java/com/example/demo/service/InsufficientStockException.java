@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+public class InsufficientStockException extends CheckoutException {
+    
+    private final List<Long> productIds;
+    
+    public InsufficientStockException(List<Long> productIds) {
+        super("Insufficient stock");
+        this.productIds = List.copyOf(productIds);
+    }
+    
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Counts failed logins per username and client address in a fixed window
+ * that starts at the first failure. Once a pair reaches max-failures, further
+ * attempts from that address are refused before any password hash is
+ * computed, until the window ends or a login succeeds. Keying on the address
+ * too means someone guessing at an account only locks themselves out, not the
+ * owner logging in from elsewhere.
+ */
+@Service
+public class LoginAttemptService {
+    
+    private final int maxFailures;
+    private final Cache<String, AtomicInteger> failures;
+    
+    @Autowired
+    public LoginAttemptService(@Value("${app.security.login.max-failures:5}") int maxFailures,
+                               @Value("${app.security.login.failure-window:15m}") Duration failureWindow,
+                               @Value("${app.security.login.tracked-usernames:100000}") long trackedPairs) {
+        this.maxFailures = maxFailures;
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(trackedPairs)
+                .expireAfterWrite(failureWindow)
+                .build();
+    }
+    
+    public boolean isBlocked(String username, String clientAddress) {
+        AtomicInteger count = failures.getIfPresent(key(username, clientAddress));
+        return count != null && count.get() >= maxFailures;
+    }
+    
+    public void loginFailed(String username, String clientAddress) {
+        failures.get(key(username, clientAddress), k -> new AtomicInteger()).incrementAndGet();
+    }
+    
+    public void loginSucceeded(String username, String clientAddress) {
+        failures.invalidate(key(username, clientAddress));
+    }
+    
+    // The address comes first so a username cannot be crafted to collide with another pair
+    private static String key(String username, String clientAddress) {
+        String address = clientAddress == null ? "" : clientAddress;
+        return address + " " + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+    }
+}
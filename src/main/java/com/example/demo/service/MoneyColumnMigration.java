@@ -0,0 +1,47 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Rewrites money columns that still hold rupees as double precision into
+ * bigint paise. Unlike SchemaMigrationService this has to run before
+ * Hibernate's schema update, which would otherwise change the column type
+ * itself and truncate the rupee values, so the entity manager factory is
+ * made to depend on it. A column is only converted while it still has a
+ * floating-point type, so this is a no-op once done or on a fresh schema.
+ */
+@Component
+public class MoneyColumnMigration {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor moneyColumnMigrationBeforeJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor(MoneyColumnMigration.class);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        convertToMinorUnits("products", "price");
+        convertToMinorUnits("orders", "total_amount");
+        convertToMinorUnits("order_items", "price");
+    }
+
+    private void convertToMinorUnits(String table, String column) {
+        Integer unconverted = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = current_schema() "
+                        + "AND table_name = ? AND column_name = ? AND data_type IN ('double precision', 'real', 'numeric')",
+                Integer.class, table, column);
+        if (unconverted != null && unconverted > 0) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column
+                    + " TYPE BIGINT USING ROUND(" + column + " * 100)::BIGINT");
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.Model.OrderSearchCriteria;
+import com.example.demo.utils.Money;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams orders and their items straight from a forward-only JDBC cursor to
+ * an output stream. Rows are never collected or turned into entities, so
+ * memory use does not depend on how many orders are exported.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String EXPORT_SQL = """
+            SELECT o.id, o.order_number, o.created_at, o.status, o.payment_method, o.payment_status,
+                   o.total_amount, o.shipping_full_name, o.shipping_city, o.shipping_state,
+                   o.shipping_pincode, o.tracking_number, o.courier_name,
+                   i.id AS item_id, i.product_name, i.quantity, i.price, i.size, i.color
+            FROM orders o
+            LEFT JOIN order_items i ON i.order_id = o.id
+            """;
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OrderExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper) {
+        // PostgreSQL only honours the fetch size (a server-side cursor) inside a transaction
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(OrderSearchCriteria criteria, Format format, OutputStream out) {
+        StringBuilder sql = new StringBuilder(EXPORT_SQL).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (criteria.getStatus() != null) {
+            sql.append(" AND o.status = ?");
+            args.add(criteria.getStatus().name());
+        }
+        if (criteria.getPaymentStatus() != null) {
+            sql.append(" AND o.payment_status = ?");
+            args.add(criteria.getPaymentStatus());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            sql.append(" AND o.created_at >= ?");
+            args.add(Timestamp.valueOf(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            sql.append(" AND o.created_at < ?");
+            args.add(Timestamp.valueOf(criteria.getCreatedTo()));
+        }
+        if (criteria.getOrderNumberPrefix() != null) {
+            sql.append(" AND o.order_number LIKE ? ESCAPE '\\'");
+            args.add(criteria.getOrderNumberPrefix().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        // Items of one order must arrive together for NDJSON grouping
+        sql.append(" ORDER BY o.id, i.id");
+
+        ExportWriter writer = writer(format, out);
+        ExportRow row = new ExportRow();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            writer.begin();
+            cursorTemplate.query(sql.toString(), (RowCallbackHandler) rs -> writer.write(row.read(rs)), args.toArray());
+            writer.finish();
+        });
+    }
+
+    public ExportWriter writer(Format format, OutputStream out) {
+        return format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out, objectMapper);
+    }
+
+    /**
+     * One joined order/item row. A single instance is refilled for every row
+     * to keep the export allocation-light.
+     */
+    public static class ExportRow {
+        public long orderId;
+        public String orderNumber;
+        public Timestamp createdAt;
+        public String status;
+        public String paymentMethod;
+        public String paymentStatus;
+        public long totalAmountMinor;
+        public String shippingFullName;
+        public String shippingCity;
+        public String shippingState;
+        public String shippingPincode;
+        public String trackingNumber;
+        public String courierName;
+        public Long itemId;
+        public String productName;
+        public int quantity;
+        public long priceMinor;
+        public String size;
+        public String color;
+
+        ExportRow read(ResultSet rs) throws SQLException {
+            orderId = rs.getLong("id");
+            orderNumber = rs.getString("order_number");
+            createdAt = rs.getTimestamp("created_at");
+            status = rs.getString("status");
+            paymentMethod = rs.getString("payment_method");
+            paymentStatus = rs.getString("payment_status");
+            totalAmountMinor = rs.getLong("total_amount");
+            shippingFullName = rs.getString("shipping_full_name");
+            shippingCity = rs.getString("shipping_city");
+            shippingState = rs.getString("shipping_state");
+            shippingPincode = rs.getString("shipping_pincode");
+            trackingNumber = rs.getString("tracking_number");
+            courierName = rs.getString("courier_name");
+            long item = rs.getLong("item_id");
+            itemId = rs.wasNull() ? null : item;
+            productName = rs.getString("product_name");
+            quantity = rs.getInt("quantity");
+            priceMinor = rs.getLong("price");
+            size = rs.getString("size");
+            color = rs.getString("color");
+            return this;
+        }
+    }
+
+    public interface ExportWriter {
+        void begin();
+
+        void write(ExportRow row);
+
+        void finish();
+    }
+
+    // One line per order item; orders without items get one line with empty item columns
+    static class CsvWriter implements ExportWriter {
+        private final Writer out;
+
+        CsvWriter(OutputStream out) {
+            this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void begin() {
+            line("order_id,order_number,created_at,status,payment_method,payment_status,total_amount,"
+                    + "shipping_full_name,shipping_city,shipping_state,shipping_pincode,tracking_number,courier_name,"
+                    + "item_id,product_name,quantity,price,size,color");
+        }
+
+        @Override
+        public void write(ExportRow row) {
+            StringBuilder line = new StringBuilder(256);
+            line.append(row.orderId).append(',');
+            field(line, row.orderNumber).append(',');
+            field(line, row.createdAt == null ? null : row.createdAt.toLocalDateTime().toString()).append(',');
+            field(line, row.status).append(',');
+            field(line, row.paymentMethod).append(',');
+            field(line, row.paymentStatus).append(',');
+            Money.appendMajor(line, row.totalAmountMinor).append(',');
+            field(line, row.shippingFullName).append(',');
+            field(line, row.shippingCity).append(',');
+            field(line, row.shippingState).append(',');
+            field(line, row.shippingPincode).append(',');
+            field(line, row.trackingNumber).append(',');
+            field(line, row.courierName).append(',');
+            if (row.itemId != null) {
+                line.append(row.itemId).append(',');
+                field(line, row.productName).append(',');
+                line.append(row.quantity).append(',');
+                Money.appendMajor(line, row.priceMinor).append(',');
+                field(line, row.size).append(',');
+                field(line, row.color);
+            } else {
+                line.append(",,,,,");
+            }
+            line(line);
+        }
+
+        @Override
+        public void finish() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void line(CharSequence text) {
+            try {
+                out.append(text).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static StringBuilder field(StringBuilder line, String value) {
+            if (value == null) {
+                return line;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return line.append(value);
+            }
+            return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    // One JSON object per order with its items nested, one object per line
+    static class NdjsonWriter implements ExportWriter {
+        private final OutputStream out;
+        private final ObjectMapper objectMapper;
+        private JsonGenerator json;
+        private Long currentOrderId;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+            this.out = out;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void begin() {
+            try {
+                json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+                json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(ExportRow row) {
+            try {
+                if (currentOrderId == null || currentOrderId != row.orderId) {
+                    closeOrder();
+                    currentOrderId = row.orderId;
+                    json.writeStartObject();
+                    json.writeNumberField("id", row.orderId);
+                    json.writeStringField("orderNumber", row.orderNumber);
+                    json.writeStringField("createdAt", row.createdAt == null ? null : row.createdAt.toLocalDateTime().toString());
+                    json.writeStringField("status", row.status);
+                    json.writeStringField("paymentMethod", row.paymentMethod);
+                    json.writeStringField("paymentStatus", row.paymentStatus);
+                    json.writeNumberField("totalAmount", Money.toMajor(row.totalAmountMinor));
+                    json.writeStringField("shippingFullName", row.shippingFullName);
+                    json.writeStringField("shippingCity", row.shippingCity);
+                    json.writeStringField("shippingState", row.shippingState);
+                    json.writeStringField("shippingPincode", row.shippingPincode);
+                    json.writeStringField("trackingNumber", row.trackingNumber);
+                    json.writeStringField("courierName", row.courierName);
+                    json.writeArrayFieldStart("items");
+                }
+                if (row.itemId != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", row.itemId);
+                    json.writeStringField("productName", row.productName);
+                    json.writeNumberField("quantity", row.quantity);
+                    json.writeNumberField("price", Money.toMajor(row.priceMinor));
+                    json.writeStringField("size", row.size);
+                    json.writeStringField("color", row.color);
+                    json.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() {
+            try {
+                closeOrder();
+                json.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void closeOrder() throws IOException {
+            if (currentOrderId != null) {
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order numbers such as ORD-0A8M4GCJC0C00, built from a 63-bit id: 41 bits
+ * of milliseconds since 2024-01-01, a 10-bit node id and a 12-bit sequence
+ * within the millisecond. Numbers are unique as long as no two running
+ * instances share a node id; OrderNumberNodeLease hands them out, and the
+ * unique index on order_number is the last line of defence.
+ *
+ * The last issued time and sequence live in one AtomicLong, advanced with
+ * compare-and-set, so callers never block. Each id is the larger of "now"
+ * and "previous + 1": a burst of more than 4096 ids in a millisecond borrows
+ * the next millisecond, and a clock that steps back keeps counting from the
+ * last id, so ids only ever grow on a node.
+ *
+ * The id is written as 13 Crockford base32 digits (no I, L, O or U), padded
+ * to a fixed width so that string order is issue order and new rows land at
+ * the end of the order_number index.
+ */
+@Component
+public class OrderNumberGenerator {
+
+    public static final String PREFIX = "ORD-";
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final int DIGITS = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final IntSupplier nodeId;
+    private final LongSupplier clock;
+
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence, of the last id issued
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public OrderNumberGenerator(OrderNumberNodeLease lease) {
+        this.nodeId = lease::nodeId;
+        this.clock = System::currentTimeMillis;
+    }
+
+    // A fixed node id, for benchmarks and tests
+    public OrderNumberGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    OrderNumberGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.nodeId = () -> nodeId;
+        this.clock = clock;
+    }
+
+    public String next() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long state = last.updateAndGet(previous -> Math.max(previous + 1, now));
+        long millis = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | ((long) nodeId.getAsInt() << SEQUENCE_BITS) | sequence;
+    }
+
+    static String format(long id) {
+        char[] chars = new char[PREFIX.length() + DIGITS];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
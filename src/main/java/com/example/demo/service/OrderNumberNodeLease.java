@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Gives this instance an OrderNumberGenerator node id that no other running
+ * instance holds, through a lease row in order_number_nodes.
+ *
+ * Without app.order-number.node-id the lowest id that is free or whose lease
+ * has expired is taken, so any number of instances can start from the same
+ * configuration. With it, exactly that id is leased, and startup fails if
+ * another live instance holds it.
+ *
+ * The lease is renewed every renew-interval-ms and deleted on shutdown. An
+ * instance whose renewal finds the row taken over, for example after a pause
+ * longer than the lease, leases a new id; and an id is never used past the
+ * local expiry of its lease without renewing first. Lease times come from
+ * each instance's clock, so clocks must agree to well within the lease.
+ */
+@Component
+public class OrderNumberNodeLease {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberNodeLease.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    // Lease statements never join, or abort, the transaction of the checkout that asked for an id
+    private final TransactionTemplate ownTransaction;
+    private final Integer configuredNodeId;
+    private final Duration lease;
+    private final Clock clock;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    // Not synchronized: the lease SQL waits for a second pooled connection, which would pin a virtual thread's carrier
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    private volatile int nodeId = -1;
+    // Local time after which the id may already belong to someone else
+    private volatile long validUntilMillis;
+
+    // Depending on the EntityManagerFactory makes Hibernate create the table first
+    @Autowired
+    public OrderNumberNodeLease(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                EntityManagerFactory entityManagerFactory,
+                                @Value("${app.order-number.node-id:}") Integer configuredNodeId,
+                                @Value("${app.order-number.lease:1m}") Duration lease,
+                                @Value("${app.order-number.renew-interval-ms:20000}") long renewIntervalMillis) {
+        this(jdbcTemplate, transactionManager, configuredNodeId, lease, Clock.systemDefaultZone());
+        if (renewIntervalMillis >= lease.toMillis()) {
+            throw new IllegalArgumentException("app.order-number.renew-interval-ms must be shorter than app.order-number.lease");
+        }
+    }
+
+    OrderNumberNodeLease(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         Integer configuredNodeId, Duration lease, Clock clock) {
+        if (configuredNodeId != null && (configuredNodeId < 0 || configuredNodeId > OrderNumberGenerator.MAX_NODE_ID)) {
+            throw new IllegalArgumentException("app.order-number.node-id must be between 0 and "
+                    + OrderNumberGenerator.MAX_NODE_ID + ", was " + configuredNodeId);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.configuredNodeId = configuredNodeId;
+        this.lease = lease;
+        this.clock = clock;
+        acquire();
+    }
+
+    public int nodeId() {
+        if (clock.millis() >= validUntilMillis) {
+            renew();
+        }
+        return nodeId;
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-number.renew-interval-ms:20000}")
+    public void renew() {
+        leaseLock.lock();
+        try {
+            long now = clock.millis();
+            Integer renewed = ownTransaction.execute(status -> jdbcTemplate.update(
+                    "UPDATE order_number_nodes SET lease_until = ? WHERE node_id = ? AND owner = ?",
+                    LocalDateTime.now(clock).plus(lease), nodeId, owner));
+            if (renewed == 1) {
+                validUntilMillis = now + lease.toMillis();
+            } else {
+                log.warn("Order number node id {} was taken over by another instance, leasing a new one", nodeId);
+                acquire();
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        leaseLock.lock();
+        try {
+            ownTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                    "DELETE FROM order_number_nodes WHERE node_id = ? AND owner = ?", nodeId, owner));
+            validUntilMillis = 0;
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private void acquire() {
+        leaseLock.lock();
+        try {
+            leaseNodeId();
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private void leaseNodeId() {
+        if (configuredNodeId != null) {
+            if (!claim(configuredNodeId)) {
+                throw new IllegalStateException("app.order-number.node-id " + configuredNodeId
+                        + " is leased by another running instance; give each instance its own id or leave it unset");
+            }
+            return;
+        }
+        Set<Integer> taken = new HashSet<>(ownTransaction.execute(status -> jdbcTemplate.queryForList(
+                "SELECT node_id FROM order_number_nodes WHERE lease_until >= ? AND owner <> ?",
+                Integer.class, LocalDateTime.now(clock), owner)));
+        for (int candidate = 0; candidate <= OrderNumberGenerator.MAX_NODE_ID; candidate++) {
+            if (!taken.contains(candidate) && claim(candidate)) {
+                log.info("Leased order number node id {}", candidate);
+                return;
+            }
+        }
+        throw new IllegalStateException("All " + (OrderNumberGenerator.MAX_NODE_ID + 1) + " order number node ids are leased");
+    }
+
+    // Takes the row over if its lease has expired, or inserts it; false if a live instance holds it
+    private boolean claim(int candidate) {
+        long now = clock.millis();
+        LocalDateTime until = LocalDateTime.now(clock).plus(lease);
+        boolean claimed = ownTransaction.execute(status -> {
+            if (jdbcTemplate.update("UPDATE order_number_nodes SET owner = ?, lease_until = ? "
+                    + "WHERE node_id = ? AND (lease_until < ? OR owner = ?)",
+                    owner, until, candidate, LocalDateTime.now(clock), owner) == 1) {
+                return true;
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO order_number_nodes (node_id, owner, lease_until) VALUES (?, ?, ?)",
+                        candidate, owner, until);
+                return true;
+            } catch (DuplicateKeyException e) {
+                status.setRollbackOnly();
+                return false;
+            }
+        });
+        if (!claimed) {
+            return false;
+        }
+        nodeId = candidate;
+        validUntilMillis = now + lease.toMillis();
+        return true;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+/**
+ * Thrown for a status change the order lifecycle does not allow, e.g.
+ * shipping a cancelled order; the message is safe to show to the caller.
+ */
+public class OrderStatusException extends RuntimeException {
+    
+    public OrderStatusException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+
+/**
+ * The one place order statuses change, so the lifecycle in OrderStatus holds
+ * for customer, admin and bulk updates alike.
+ *
+ * A single order is changed through the entity and saved against its
+ * @Version, so of two concurrent changes to the same order the second fails
+ * instead of silently overwriting the first. Bulk transitions skip the
+ * entity: for each target status, one conditional UPDATE (id and an allowed
+ * current status) goes out as a JDBC batch, and its per-row update counts
+ * tell which ids were rejected. Those UPDATEs bump the version too, so an
+ * entity read before them cannot be saved over them.
+ *
+ * Cancelling gives the order's stock back in the same transaction, for the
+ * orders whose cancel applied and no others.
+ */
+@Service
+public class OrderStatusService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Value("${app.orders.max-bulk-transitions:5000}")
+    private int maxBulkTransitions;
+
+    /**
+     * Moves the order to the target status and records the shipping or
+     * delivery date. expectedVersion, when given, is the version the caller
+     * last saw; a mismatch fails like a concurrent update would.
+     */
+    @Transactional
+    public Order transition(Order order, OrderStatus target, Long expectedVersion,
+                            String trackingNumber, String courierName) {
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Order.class, order.getId());
+        }
+        if (!order.getStatus().canTransitionTo(target)) {
+            throw new OrderStatusException("Cannot change order from " + order.getStatus() + " to " + target);
+        }
+
+        order.setStatus(target);
+        if (target == OrderStatus.SHIPPED) {
+            order.setShippedDate(LocalDateTime.now());
+            order.setTrackingNumber(trackingNumber);
+            order.setCourierName(courierName);
+        } else if (target == OrderStatus.DELIVERED) {
+            order.setDeliveredDate(LocalDateTime.now());
+        }
+        // Flush here so a version conflict surfaces as an exception from this call
+        Order saved = orderRepository.saveAndFlush(order);
+        if (target == OrderStatus.CANCELLED) {
+            stockReservationService.returnStock(List.of(saved.getId()));
+        }
+        return saved;
+    }
+
+    /**
+     * Applies many transitions in one transaction. Target statuses are
+     * applied in lifecycle order, so one request may move an order from
+     * CONFIRMED to SHIPPED and on to DELIVERED. An id is rejected if the
+     * order does not exist or its status at that point does not allow the
+     * transition; the others are applied regardless.
+     */
+    @Transactional
+    public BulkTransitionResult transitionAll(Map<OrderStatus, ? extends Collection<Long>> idsByStatus) {
+        int requested = idsByStatus.values().stream().mapToInt(Collection::size).sum();
+        if (requested == 0) {
+            throw new OrderStatusException("No transitions");
+        }
+        if (requested > maxBulkTransitions) {
+            throw new OrderStatusException("Too many transitions, at most " + maxBulkTransitions);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int applied = 0;
+        List<Long> rejectedIds = new ArrayList<>();
+        Map<OrderStatus, Collection<Long>> inLifecycleOrder = new EnumMap<>(OrderStatus.class);
+        inLifecycleOrder.putAll(idsByStatus);
+        for (Map.Entry<OrderStatus, Collection<Long>> entry : inLifecycleOrder.entrySet()) {
+            OrderStatus target = entry.getKey();
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(entry.getValue()));
+            if (target.sources().isEmpty()) {
+                rejectedIds.addAll(ids);
+                continue;
+            }
+
+            boolean datesShipment = target == OrderStatus.SHIPPED || target == OrderStatus.DELIVERED;
+            int[][] counts = jdbcTemplate.batchUpdate(updateSql(target), ids, BATCH_SIZE, (ps, id) -> {
+                ps.setString(1, target.name());
+                ps.setTimestamp(2, now);
+                if (datesShipment) {
+                    ps.setTimestamp(3, now);
+                    ps.setLong(4, id);
+                } else {
+                    ps.setLong(3, id);
+                }
+            });
+
+            List<Long> appliedIds = new ArrayList<>();
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    if (count == 0) {
+                        rejectedIds.add(ids.get(index));
+                    } else {
+                        appliedIds.add(ids.get(index));
+                    }
+                    index++;
+                }
+            }
+            applied += appliedIds.size();
+            if (target == OrderStatus.CANCELLED && !appliedIds.isEmpty()) {
+                stockReservationService.returnStock(appliedIds);
+            }
+        }
+        return new BulkTransitionResult(applied, rejectedIds);
+    }
+
+    // The allowed current statuses come from the enum, never from the request
+    private static String updateSql(OrderStatus target) {
+        String sources = target.sources().stream()
+                .map(source -> "'" + source.name() + "'")
+                .collect(Collectors.joining(", "));
+        String dateColumn = target == OrderStatus.SHIPPED ? "shipped_date = ?, "
+                : target == OrderStatus.DELIVERED ? "delivered_date = ?, " : "";
+        return "UPDATE orders SET status = ?, updated_at = ?, " + dateColumn + "version = version + 1 "
+                + "WHERE id = ? AND status IN (" + sources + ")";
+    }
+
+    public static class BulkTransitionResult {
+        private final int applied;
+        private final List<Long> rejectedIds;
+
+        public BulkTransitionResult(int applied, List<Long> rejectedIds) {
+            this.applied = applied;
+            this.rejectedIds = rejectedIds;
+        }
+
+        public int getApplied() { return applied; }
+
+        public List<Long> getRejectedIds() { return rejectedIds; }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductChangedEvent;
+import com.example.demo.Model.ProductRepository;
+
+/**
+ * In-memory inverted index over active products' name, category and
+ * description. Terms are lowercased alphanumeric tokens kept in a sorted map
+ * so the last query term can be matched as a prefix (search-as-you-type).
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // term -> (product id -> weighted term frequency)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild(productRepository.findByActiveTrue());
+    }
+
+    // Runs after the writing transaction commits so rolled-back changes are never indexed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isRemoved()) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    public void rebuild(Iterable<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (Product product : products) {
+                addUnlocked(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            addUnlocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids of products matching every query term, best match first.
+     * The final term also matches as a prefix. Ranking is by weighted term
+     * frequency, then rating.
+     */
+    public List<Long> search(String query, String category, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                Map<Long, Integer> termScores = match(terms.get(i), prefix);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // AND semantics: keep only products that matched all earlier terms
+                    Map<Long, Integer> merged = new HashMap<>();
+                    for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                        Integer score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            merged.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Map.Entry<Long, Integer>> ranked = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                if (category == null || category.equalsIgnoreCase(documents.get(entry.getKey()).category)) {
+                    ranked.add(entry);
+                }
+            }
+            ranked.sort((a, b) -> {
+                int byScore = Integer.compare(b.getValue(), a.getValue());
+                if (byScore != 0) {
+                    return byScore;
+                }
+                int byRating = Double.compare(documents.get(b.getKey()).rating, documents.get(a.getKey()).rating);
+                return byRating != 0 ? byRating : Long.compare(a.getKey(), b.getKey());
+            });
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                ids.add(ranked.get(i).getKey());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> match(String term, boolean prefix) {
+        Map<Long, Integer> result = new HashMap<>();
+        if (prefix) {
+            for (Map<Long, Integer> docs : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                docs.forEach((id, tf) -> result.merge(id, tf, Math::max));
+            }
+        } else {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                result.putAll(docs);
+            }
+        }
+        return result;
+    }
+
+    private void addUnlocked(Product product) {
+        if (product.getId() == null || !Boolean.TRUE.equals(product.getActive())) {
+            return;
+        }
+        Map<String, Integer> termFrequencies = new LinkedHashMap<>();
+        addTerms(termFrequencies, product.getName(), NAME_WEIGHT);
+        addTerms(termFrequencies, product.getCategory(), CATEGORY_WEIGHT);
+        addTerms(termFrequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(product.getId(), entry.getValue());
+        }
+        double rating = product.getRating() == null ? 0.0 : product.getRating();
+        documents.put(product.getId(), new IndexedProduct(product.getCategory(), rating, termFrequencies.keySet()));
+    }
+
+    private void removeUnlocked(Long productId) {
+        IndexedProduct existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+        for (String token : tokenize(text)) {
+            termFrequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static class IndexedProduct {
+        private final String category;
+        private final double rating;
+        private final List<String> terms;
+
+        IndexedProduct(String category, double rating, Iterable<String> terms) {
+            this.category = category;
+            this.rating = rating;
+            this.terms = new ArrayList<>();
+            terms.forEach(this.terms::add);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.Model.OrderStatus;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * One-off data fixes that ddl-auto=update cannot express. Every step must be
+ * idempotent because it runs on each startup.
+ */
+@Service
+public class SchemaMigrationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrationService.class);
+    
+    private static final int MAX_LOGGED_IDS = 100;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Depending on the EntityManagerFactory makes Hibernate's schema update run first
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    public void migrate() {
+        alignSequence("orders_seq", "orders");
+        alignSequence("order_items_seq", "order_items");
+        uniqueCartLines();
+        uniqueOrderNumbers();
+        orderVersionsAndStatuses();
+    }
+    
+    // Tables that used IDENTITY ids already hold rows, so move the new
+    // sequence past the highest existing id before Hibernate allocates from it
+    private void alignSequence(String sequence, String table) {
+        jdbcTemplate.queryForList(
+                "SELECT setval('" + sequence + "', m) FROM (SELECT MAX(id) AS m FROM " + table + ") t "
+                        + "WHERE m IS NOT NULL AND m >= (SELECT last_value FROM " + sequence + ")");
+    }
+    
+    // One row per user/product/size/color, as CartItemRepository.addOrIncrement
+    // expects. Lines duplicated by earlier concurrent adds are folded into the
+    // oldest row before the index is built.
+    private void uniqueCartLines() {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass('ux_cart_items_line') IS NOT NULL", Boolean.class);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE cart_items c SET quantity = d.total FROM ("
+                + "SELECT MIN(id) AS id, SUM(quantity) AS total FROM cart_items "
+                + "GROUP BY user_id, product_id, COALESCE(size, ''), COALESCE(color, '') HAVING COUNT(*) > 1) d "
+                + "WHERE c.id = d.id");
+        jdbcTemplate.update("DELETE FROM cart_items a USING cart_items b "
+                + "WHERE a.user_id = b.user_id AND a.product_id = b.product_id "
+                + "AND COALESCE(a.size, '') = COALESCE(b.size, '') AND COALESCE(a.color, '') = COALESCE(b.color, '') "
+                + "AND a.id > b.id");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_cart_items_line "
+                + "ON cart_items (user_id, product_id, (COALESCE(size, '')), (COALESCE(color, '')))");
+    }
+    
+    // Numbers from the old 8-hex-digit scheme can collide, which also makes
+    // Hibernate's attempt at ux_orders_order_number fail. Later duplicates get
+    // their id appended so the oldest order keeps its number, then the index
+    // is built and replaces the plain one.
+    private void uniqueOrderNumbers() {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass('ux_orders_order_number') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(exists)) {
+            jdbcTemplate.update("UPDATE orders o SET order_number = o.order_number || '-' || o.id "
+                    + "WHERE EXISTS (SELECT 1 FROM orders p WHERE p.order_number = o.order_number AND p.id < o.id)");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_orders_order_number ON orders (order_number)");
+        }
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_orders_order_number");
+    }
+    
+    // Orders from before the @Version column start at version 0. Statuses
+    // used to be free text, which customers could set too. Case and
+    // whitespace variants of a known status are normalised; any other value
+    // would make Hibernate fail on every query loading the order, so it is
+    // replaced by what the order's dates show (delivered, shipped, otherwise
+    // PENDING for an admin to review) and the ids are logged.
+    private void orderVersionsAndStatuses() {
+        String known = Arrays.stream(OrderStatus.values())
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.update("UPDATE orders SET version = 0 WHERE version IS NULL");
+        jdbcTemplate.update("UPDATE orders SET status = UPPER(TRIM(status)) WHERE status <> UPPER(TRIM(status)) "
+                + "AND UPPER(TRIM(status)) IN (" + known + ")");
+        
+        String unknown = "status IS NULL OR status NOT IN (" + known + ")";
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM orders WHERE " + unknown + " ORDER BY id", Long.class);
+        if (ids.isEmpty()) {
+            return;
+        }
+        log.warn("Replacing unknown statuses of {} orders, inferred from their dates: {}", ids.size(),
+                ids.size() > MAX_LOGGED_IDS ? ids.subList(0, MAX_LOGGED_IDS) + " ..." : ids);
+        jdbcTemplate.update("UPDATE orders SET status = CASE WHEN delivered_date IS NOT NULL THEN 'DELIVERED' "
+                + "WHEN shipped_date IS NOT NULL THEN 'SHIPPED' ELSE 'PENDING' END, version = version + 1 "
+                + "WHERE " + unknown);
+    }
+}
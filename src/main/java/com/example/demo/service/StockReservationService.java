@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Decrements product stock with conditional UPDATEs so concurrent checkouts
+ * can never oversell. The database applies each decrement atomically under
+ * the row lock; nothing is read and written back from the application.
+ */
+@Service
+public class StockReservationService {
+    
+    private static final String RESERVE_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND active = true AND stock >= ?";
+    
+    private static final String RETURN_SQL = "UPDATE products SET stock = stock + ? WHERE id = ?";
+    
+    private static final int ORDER_CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private HotInventoryService hotInventoryService;
+    
+    /**
+     * Reserves the requested quantity of every product in one JDBC batch.
+     * If any line cannot be satisfied an {@link InsufficientStockException}
+     * listing those products is thrown and the surrounding transaction rolls
+     * back the lines that did succeed.
+     *
+     * @param quantities requested quantity per product id
+     */
+    @Transactional
+    public void reserve(Map<Long, Integer> quantities) {
+        // Lock rows in id order so two multi-line checkouts cannot deadlock
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        if (lines.isEmpty()) {
+            return;
+        }
+        
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        })[0];
+        
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(lines.get(i).getKey());
+            }
+        }
+        if (!rejected.isEmpty()) {
+            throw new InsufficientStockException(rejected);
+        }
+    }
+    
+    /**
+     * Puts the items of cancelled orders back on sale. Call it in the
+     * transaction that cancelled them, and only with orders whose cancel
+     * actually applied.
+     *
+     * Items already settled into products.stock are added back to it in one
+     * batch. Hot-product items that have not been settled yet were only ever
+     * taken from the in-memory counter: they are marked settled, so the flush
+     * never takes them off products.stock, and the counter gets them back once
+     * the transaction commits.
+     */
+    @Transactional
+    public void returnStock(Collection<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(orderIds);
+        Map<Long, Integer> settled = new TreeMap<>();
+        Map<Long, Integer> unsettled = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ORDER_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ORDER_CHUNK_SIZE, ids.size()));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            // Locked, so a concurrent flush either settled an item before this read or waits for the cancel
+            jdbcTemplate.query("SELECT product_id, quantity, stock_settled FROM order_items "
+                    + "WHERE order_id IN (" + in + ") AND product_id IS NOT NULL FOR UPDATE",
+                    (RowCallbackHandler) rs -> (rs.getBoolean(3) ? settled : unsettled)
+                            .merge(rs.getLong(1), rs.getInt(2), Integer::sum),
+                    chunk.toArray());
+            jdbcTemplate.update("UPDATE order_items SET stock_settled = true "
+                    + "WHERE order_id IN (" + in + ") AND stock_settled = false", chunk.toArray());
+        }
+        
+        // Id order, like reserve, so a cancel and a checkout cannot deadlock
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(settled.entrySet());
+        if (!lines.isEmpty()) {
+            jdbcTemplate.batchUpdate(RETURN_SQL, lines, lines.size(), (ps, line) -> {
+                ps.setInt(1, line.getValue());
+                ps.setLong(2, line.getKey());
+            });
+        }
+        hotInventoryService.releaseAfterCommit(unsettled);
+    }
+}
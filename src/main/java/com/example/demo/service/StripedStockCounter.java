@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock-free stock counter split across padded stripes so that many threads
+ * reserving the same product mostly CAS different cache lines. The sum of
+ * the stripes is the available quantity; a reservation succeeds only if it
+ * can be taken in full, so the counter never goes negative.
+ *
+ * A reservation that does not fit in one stripe gathers from several. While
+ * it gathers, it holds part of the stock, and a second gatherer running at
+ * the same time could come up short even though the total would cover both.
+ * Gathering therefore happens under a lock, one reservation at a time, and
+ * is retried while it still makes progress. A reservation is refused only
+ * when a full sweep finds nothing more to take.
+ */
+public class StripedStockCounter {
+    
+    // 8 longs = 64 bytes, keeps neighbouring stripes off the same cache line
+    private static final int PAD = 8;
+    
+    private final int stripeCount;
+    private final AtomicLongArray cells;
+    // Serializes the slow path only; the fast path and releases stay lock-free
+    private final ReentrantLock gatherLock = new ReentrantLock();
+    
+    public StripedStockCounter(long initialStock, int stripeCount) {
+        this.stripeCount = Math.max(1, stripeCount);
+        this.cells = new AtomicLongArray(this.stripeCount * PAD);
+        long share = initialStock / this.stripeCount;
+        long remainder = initialStock % this.stripeCount;
+        for (int i = 0; i < this.stripeCount; i++) {
+            cells.set(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+    
+    public boolean tryAcquire(long quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        int start = home();
+        
+        // Fast path: take everything from one stripe
+        for (int i = 0; i < stripeCount; i++) {
+            int index = ((start + i) % stripeCount) * PAD;
+            long current = cells.get(index);
+            while (current >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+                current = cells.get(index);
+            }
+        }
+        
+        // Slow path: gather from several stripes, give it all back if still short
+        gatherLock.lock();
+        try {
+            long taken = 0;
+            long swept;
+            do {
+                // Stock released into a stripe already swept is picked up on the next pass
+                swept = drain(quantity - taken, start);
+                taken += swept;
+            } while (taken < quantity && swept > 0);
+            if (taken < quantity) {
+                release(taken);
+                return false;
+            }
+            return true;
+        } finally {
+            gatherLock.unlock();
+        }
+    }
+    
+    // Takes up to quantity, for stock that was removed outside of reservations
+    public long drain(long quantity) {
+        return quantity > 0 ? drain(quantity, home()) : 0;
+    }
+    
+    public void release(long quantity) {
+        if (quantity > 0) {
+            cells.addAndGet(home() * PAD, quantity);
+        }
+    }
+    
+    // Not a snapshot: concurrent reservations may be in flight
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+    
+    private long drain(long quantity, int start) {
+        long taken = 0;
+        for (int i = 0; i < stripeCount && taken < quantity; i++) {
+            int index = ((start + i) % stripeCount) * PAD;
+            long current = cells.get(index);
+            while (current > 0) {
+                long take = Math.min(current, quantity - taken);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken += take;
+                    break;
+                }
+                current = cells.get(index);
+            }
+        }
+        return taken;
+    }
+    
+    // A random starting stripe per call spreads threads without relying on thread ids
+    private int home() {
+        return ThreadLocalRandom.current().nextInt(stripeCount);
+    }
+}
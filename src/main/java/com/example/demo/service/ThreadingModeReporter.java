@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs which threading model serves requests. With virtual threads Tomcat no
+ * longer caps in-flight requests, so the JDBC pool becomes the limit; the
+ * hashing and mail pools stay on their own bounded platform threads either
+ * way.
+ */
+@Component
+public class ThreadingModeReporter {
+    
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeReporter.class);
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+    
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+    
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int jdbcPoolSize;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        int javaVersion = Runtime.version().feature();
+        if (virtualThreadsRequested && javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled is set but the JVM is Java {}; virtual threads need Java 21, "
+                    + "requests stay on {} platform threads", javaVersion, tomcatMaxThreads);
+        } else if (virtualThreadsRequested) {
+            log.info("Serving requests on virtual threads; concurrent database work is bounded by the JDBC pool ({} connections)",
+                    jdbcPoolSize);
+        } else {
+            log.info("Serving requests on up to {} platform threads with {} JDBC connections", tomcatMaxThreads, jdbcPoolSize);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.TrackingEvent;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Applies courier tracking feeds to orders. Events are read one at a time
+ * from the request stream and coalesced per order number in memory: the
+ * tracking number and courier of the latest event that has them, and the
+ * first shipped and first delivered time. Every app.tracking.flush-size
+ * distinct orders, and at the end of the feed, the coalesced changes go out
+ * as JDBC batches of conditional UPDATEs in one transaction, so memory is
+ * bounded by the flush size however long the feed is. An order whose events
+ * straddle a flush is written once per flush.
+ *
+ * Orders only move along the OrderStatus lifecycle: a shipped event applies
+ * to CONFIRMED and SHIPPED orders, a delivered one to SHIPPED orders and to
+ * CONFIRMED ones whose shipped scan never arrived. Anything else, including
+ * unknown order numbers, is reported as unmatched. Applying an event twice
+ * changes nothing more, so a feed that failed half way can be sent again.
+ */
+@Service
+public class TrackingIngestionService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_UNMATCHED = 100;
+
+    private static final String SHIPPED_SQL = "UPDATE orders SET status = 'SHIPPED', "
+            + "shipped_date = COALESCE(shipped_date, ?), "
+            + "tracking_number = COALESCE(?, tracking_number), courier_name = COALESCE(?, courier_name), "
+            + "updated_at = ?, version = version + 1 "
+            + "WHERE order_number = ? AND status IN (" + names(shippable()) + ")";
+
+    private static final String DELIVERED_SQL = "UPDATE orders SET status = 'DELIVERED', "
+            + "delivered_date = ?, shipped_date = COALESCE(shipped_date, ?), "
+            + "tracking_number = COALESCE(?, tracking_number), courier_name = COALESCE(?, courier_name), "
+            + "updated_at = ?, version = version + 1 "
+            + "WHERE order_number = ? AND status IN (" + names(deliverable()) + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper objectMapper;
+    private final int flushSize;
+
+    @Autowired
+    public TrackingIngestionService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.tracking.flush-size:50000}") int flushSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.flushSize = flushSize;
+    }
+
+    // A JSON array of TrackingEvent objects, bound one element at a time
+    public IngestResult ingestJson(InputStream in) throws IOException {
+        Ingest ingest = new Ingest();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of tracking events");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                // A stray value or a truncated feed must not look like a complete one
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Expected a tracking event object but found "
+                            + (token == null ? "the end of the feed" : token) + " at " + parser.currentLocation().offsetDescription());
+                }
+                ingest.accept(objectMapper.readValue(parser, TrackingEvent.class));
+            }
+        }
+        return ingest.finish();
+    }
+
+    /**
+     * CSV with a header row naming the columns, in any order:
+     * order_number and status are required, tracking_number, courier_name
+     * and event_time optional. Fields may be double-quoted.
+     */
+    public IngestResult ingestCsv(Reader reader) throws IOException {
+        Ingest ingest = new Ingest();
+        BufferedReader lines = new BufferedReader(reader);
+        String header = lines.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Empty tracking file");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("order_number") || !columns.containsKey("status")) {
+            throw new IllegalArgumentException("Tracking file needs order_number and status columns");
+        }
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsv(line);
+            ingest.accept(new TrackingEvent(
+                    field(fields, columns, "order_number"),
+                    field(fields, columns, "tracking_number"),
+                    field(fields, columns, "courier_name"),
+                    field(fields, columns, "status"),
+                    field(fields, columns, "event_time")));
+        }
+        return ingest.finish();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on one line: quoted fields may hold commas and "" for a quote
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static LocalDateTime parseTime(String value, LocalDateTime receivedAt) {
+        if (value == null) {
+            return receivedAt;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+    }
+
+    private static Set<OrderStatus> shippable() {
+        Set<OrderStatus> statuses = EnumSet.copyOf(OrderStatus.SHIPPED.sources());
+        statuses.add(OrderStatus.SHIPPED);
+        return statuses;
+    }
+
+    // A delivery implies the shipment, so orders that could still be shipped may be delivered
+    private static Set<OrderStatus> deliverable() {
+        Set<OrderStatus> statuses = EnumSet.copyOf(OrderStatus.DELIVERED.sources());
+        statuses.addAll(shippable());
+        return statuses;
+    }
+
+    private static String names(Set<OrderStatus> statuses) {
+        return statuses.stream().map(status -> "'" + status.name() + "'").collect(Collectors.joining(", "));
+    }
+
+    // Coalesced changes for one order
+    private static final class PendingUpdate {
+        String trackingNumber;
+        String courierName;
+        LocalDateTime trackingAt;
+        LocalDateTime shippedAt;
+        LocalDateTime deliveredAt;
+
+        void merge(TrackingEvent event, OrderStatus status, LocalDateTime at) {
+            if ((event.getTrackingNumber() != null || event.getCourierName() != null)
+                    && (trackingAt == null || !at.isBefore(trackingAt))) {
+                if (event.getTrackingNumber() != null) {
+                    trackingNumber = event.getTrackingNumber();
+                }
+                if (event.getCourierName() != null) {
+                    courierName = event.getCourierName();
+                }
+                trackingAt = at;
+            }
+            if (status == OrderStatus.SHIPPED && (shippedAt == null || at.isBefore(shippedAt))) {
+                shippedAt = at;
+            } else if (status == OrderStatus.DELIVERED && (deliveredAt == null || at.isBefore(deliveredAt))) {
+                deliveredAt = at;
+            }
+        }
+    }
+
+    // State of one feed while it is read
+    private final class Ingest {
+        private final LocalDateTime receivedAt = LocalDateTime.now();
+        private final Map<String, PendingUpdate> pending = new HashMap<>();
+        private final IngestResult result = new IngestResult();
+
+        void accept(TrackingEvent event) {
+            result.events++;
+            OrderStatus status;
+            LocalDateTime at;
+            try {
+                status = OrderStatus.parse(event.getStatus());
+                at = parseTime(event.getEventTime(), receivedAt);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                result.rejected++;
+                return;
+            }
+            if (event.getOrderNumber() == null || event.getOrderNumber().isBlank()
+                    || (status != OrderStatus.SHIPPED && status != OrderStatus.DELIVERED)) {
+                result.rejected++;
+                return;
+            }
+
+            pending.computeIfAbsent(event.getOrderNumber().trim(), key -> new PendingUpdate()).merge(event, status, at);
+            if (pending.size() >= flushSize) {
+                flush();
+            }
+        }
+
+        IngestResult finish() {
+            flush();
+            return result;
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Map.Entry<String, PendingUpdate>> shipped = new ArrayList<>();
+            List<Map.Entry<String, PendingUpdate>> delivered = new ArrayList<>();
+            for (Map.Entry<String, PendingUpdate> entry : pending.entrySet()) {
+                (entry.getValue().deliveredAt != null ? delivered : shipped).add(entry);
+            }
+            // Same row order in every feed, so two concurrent feeds cannot deadlock on each other
+            shipped.sort(Map.Entry.comparingByKey());
+            delivered.sort(Map.Entry.comparingByKey());
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            transaction.executeWithoutResult(status -> {
+                count(shipped, jdbcTemplate.batchUpdate(SHIPPED_SQL, shipped, BATCH_SIZE, (ps, entry) -> {
+                    PendingUpdate update = entry.getValue();
+                    ps.setTimestamp(1, Timestamp.valueOf(update.shippedAt));
+                    ps.setString(2, update.trackingNumber);
+                    ps.setString(3, update.courierName);
+                    ps.setTimestamp(4, now);
+                    ps.setString(5, entry.getKey());
+                }));
+                count(delivered, jdbcTemplate.batchUpdate(DELIVERED_SQL, delivered, BATCH_SIZE, (ps, entry) -> {
+                    PendingUpdate update = entry.getValue();
+                    ps.setTimestamp(1, Timestamp.valueOf(update.deliveredAt));
+                    ps.setTimestamp(2, Timestamp.valueOf(update.shippedAt != null ? update.shippedAt : update.deliveredAt));
+                    ps.setString(3, update.trackingNumber);
+                    ps.setString(4, update.courierName);
+                    ps.setTimestamp(5, now);
+                    ps.setString(6, entry.getKey());
+                }));
+            });
+            result.orders += pending.size();
+            pending.clear();
+        }
+
+        private void count(List<Map.Entry<String, PendingUpdate>> entries, int[][] counts) {
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    if (count == 0) {
+                        result.unmatched++;
+                        if (result.unmatchedOrderNumbers.size() < MAX_REPORTED_UNMATCHED) {
+                            result.unmatchedOrderNumbers.add(entries.get(index).getKey());
+                        }
+                    } else {
+                        result.updated++;
+                    }
+                    index++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcome of one feed: events read, events rejected as malformed,
+     * orders they coalesced into, orders updated and orders not matched
+     * (only the first 100 unmatched numbers are listed). Orders are counted
+     * once per flush.
+     */
+    public static class IngestResult {
+        private long events;
+        private long rejected;
+        private long orders;
+        private long updated;
+        private long unmatched;
+        private final List<String> unmatchedOrderNumbers = new ArrayList<>();
+
+        public long getEvents() { return events; }
+
+        public long getRejected() { return rejected; }
+
+        public long getOrders() { return orders; }
+
+        public long getUpdated() { return updated; }
+
+        public long getUnmatched() { return unmatched; }
+
+        public List<String> getUnmatchedOrderNumbers() { return unmatchedOrderNumbers; }
+    }
+}
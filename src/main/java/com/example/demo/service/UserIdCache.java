@@ -0,0 +1,63 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded username -> user id cache so authenticated endpoints don't need a
+ * findByUsername round trip on every request.
+ */
+@Service
+public class UserIdCache {
+
+    private final AsyncLoadingCache<String, Long> cache;
+
+    @Autowired
+    public UserIdCache(MyAppUserRepository userRepository,
+                       CacheLoadExecutor cacheLoadExecutor,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.user-cache.maximum-size:10000}") long maximumSize,
+                       @Value("${app.user-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(cacheLoadExecutor)
+                .recordStats()
+                // Misses that don't resolve to a user complete with null, which is not cached
+                .buildAsync(key -> userRepository.findByUsername(key)
+                        .map(MyAppUser::getId)
+                        .orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userIdCache");
+    }
+
+    public Optional<Long> getUserId(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(CacheLoadExecutor.join(cache.get(username)));
+    }
+
+    public void put(MyAppUser user) {
+        if (user.getUsername() != null && user.getId() != null) {
+            cache.synchronous().put(user.getUsername(), user.getId());
+        }
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.synchronous().invalidate(username);
+        }
+    }
+}
@@ -1,56 +1,172 @@
 package com.example.demo.utils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 import javax.crypto.SecretKey;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
+/**
+ * Issues and verifies HS256 tokens with a key from app.jwt.secret, so tokens
+ * survive restarts and are accepted by every node. The parser is built once
+ * (it is immutable and thread-safe), and successfully verified tokens are
+ * cached by SHA-256 hash until they expire, so a token presented again skips
+ * the signature check.
+ */
 @Component
 public class JwtTokenUtil {
-    
-    private final static SecretKey SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private final static long EXPIRATION_TIME = 86400000;
 
-    public static String generateToken(String email) {
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenUtil.class);
+
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+
+    private final SecretKey secretKey;
+    private final long expirationMillis;
+    private final long accessExpirationMillis;
+    private final JwtParser jwtParser;
+    private final Cache<String, Claims> validatedTokens;
+
+    @Autowired
+    public JwtTokenUtil(MeterRegistry meterRegistry,
+                        @Value("${app.jwt.secret:}") String secret,
+                        @Value("${app.jwt.expiration:24h}") Duration expiration,
+                        @Value("${app.jwt.access-expiration:1h}") Duration accessExpiration,
+                        @Value("${app.jwt.validated-cache-size:10000}") long validatedCacheSize) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("app.jwt.secret is not set; using a random key, so tokens will not survive a restart");
+            this.secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        } else {
+            // Base64 of at least 32 random bytes
+            this.secretKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret.trim()));
+        }
+        this.expirationMillis = expiration.toMillis();
+        this.accessExpirationMillis = accessExpiration.toMillis();
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.validatedTokens = Caffeine.newBuilder()
+                .maximumSize(validatedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    // An entry never outlives the token it vouches for
+                    @Override
+                    public long expireAfterCreate(String hash, Claims claims, long currentTime) {
+                        return claims.getExpiration() == null
+                                ? expiration.toNanos()
+                                : Math.max(0, Duration.between(Instant.now(), claims.getExpiration().toInstant()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, validatedTokens, "jwt.validatedTokens");
+    }
+
+    public String generateToken(String email) {
         return Jwts.builder()
                 .setSubject(email)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SECRET_KEY, SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
+                .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
-        return !isTokenExpired(token);
+    // Bearer token for API calls; carries everything the request filter needs
+    public String generateAccessToken(Long userId, String username, Collection<String> roles) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + accessExpirationMillis))
+                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .compact();
     }
 
-    public String extractEmail(String token) {
-        JwtParser jwtParser = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build();
+    public long getAccessExpirationSeconds() {
+        return accessExpirationMillis / 1000;
+    }
 
-        return jwtParser.parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    /**
+     * Verifies the token once and returns all of its claims, or empty if the
+     * token is malformed, tampered with or expired.
+     */
+    public Optional<Claims> parse(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String hash = hash(token);
+        Claims claims = validatedTokens.getIfPresent(hash);
+        if (claims != null) {
+            return Optional.of(claims);
+        }
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        validatedTokens.put(hash, claims);
+        return Optional.of(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Only access tokens; email verification tokens are signed with the same key
+    public Optional<Claims> parseAccessToken(String token) {
+        return parse(token).filter(claims -> ACCESS_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM)));
     }
 
-    private Date extractExpiration(String token) {
-        JwtParser jwtParser = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build();
+    public boolean validateToken(String token) {
+        return parse(token).isPresent();
+    }
+
+    public String extractEmail(String token) {
+        return parse(token).map(Claims::getSubject).orElse(null);
+    }
 
-        return jwtParser.parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+    // Cache keys are digests so raw tokens are not kept in memory
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
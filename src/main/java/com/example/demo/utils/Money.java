@@ -0,0 +1,51 @@
+package com.example.demo.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts in rupees are held as a long count of paise (minor units) in
+ * entities and in the database, so sums and line totals are exact and need
+ * no boxing. BigDecimal rupees appear only at the edges: JSON, pages and
+ * exports.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private Money() {}
+
+    public static long ofMajor(long rupees) {
+        return Math.multiplyExact(rupees, MINOR_PER_MAJOR);
+    }
+
+    // Anything finer than a paisa is rounded half up
+    public static long toMinor(BigDecimal rupees) {
+        return rupees.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toMajor(long paise) {
+        return BigDecimal.valueOf(paise, SCALE);
+    }
+
+    // Line total; fails rather than wrapping around on absurd quantities
+    public static long times(long paise, int quantity) {
+        return Math.multiplyExact(paise, quantity);
+    }
+
+    // Writes e.g. 129950 as 1299.50 without going through BigDecimal
+    public static StringBuilder appendMajor(StringBuilder out, long paise) {
+        if (paise < 0) {
+            out.append('-');
+            paise = -paise;
+        }
+        long fraction = paise % MINOR_PER_MAJOR;
+        out.append(paise / MINOR_PER_MAJOR).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.Controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderItem;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.Model.TestOrders;
+import com.example.demo.Security.CurrentUser;
+import com.example.demo.service.HotInventoryService;
+import com.example.demo.service.OrderExportService;
+import com.example.demo.service.OrderStatusService;
+import com.example.demo.service.StockReservationService;
+import com.example.demo.service.TrackingIngestionService;
+import com.example.demo.utils.Money;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ AdminController.class, OrderExportService.class, OrderStatusService.class, StockReservationService.class,
+		HotInventoryService.class, TrackingIngestionService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AdminControllerTests {
+
+	@Autowired
+	private AdminController adminController;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	private MockMvc mockMvc;
+	private MyAppUser admin;
+	private MyAppUser currentUser;
+	private Product shirt;
+
+	@BeforeEach
+	void setUp() {
+		admin = new MyAppUser();
+		admin.setUsername("admin");
+		admin.setEmail("admin@example.com");
+		admin.setPassword("secret");
+		admin = userRepository.save(admin);
+		currentUser = admin;
+		shirt = productRepository.save(new Product("Shirt", Money.ofMajor(20), 10, "Men", "Test product"));
+
+		// Stands in for the security-backed resolver: requests are made as currentUser
+		HandlerMethodArgumentResolver resolver = new HandlerMethodArgumentResolver() {
+			@Override
+			public boolean supportsParameter(MethodParameter parameter) {
+				return parameter.hasParameterAnnotation(CurrentUser.class);
+			}
+
+			@Override
+			public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+					NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+				return currentUser;
+			}
+		};
+		mockMvc = MockMvcBuilders.standaloneSetup(adminController).setCustomArgumentResolvers(resolver).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderRepository.deleteAll();
+		productRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void orderDetailIncludesItsItems() throws Exception {
+		Order order = save("ORD-1", OrderStatus.PENDING, LocalDateTime.of(2026, 1, 1, 10, 0), "M", "L");
+
+		mockMvc.perform(get("/admin/orders/" + order.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.orderNumber").value("ORD-1"))
+				.andExpect(jsonPath("$.orderItems.length()").value(2))
+				.andExpect(jsonPath("$.orderItems[0].productName").value("Shirt"));
+
+		mockMvc.perform(get("/admin/orders/" + (order.getId() + 1000)))
+				.andExpect(status().isNotFound());
+
+		currentUser = null;
+		mockMvc.perform(get("/admin/orders/" + order.getId()))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void orderListMapsRequestParametersToFiltersAndPages() throws Exception {
+		save("ORD-1", OrderStatus.PENDING, LocalDateTime.of(2026, 1, 1, 10, 0), "M");
+		save("ORD-2", OrderStatus.SHIPPED, LocalDateTime.of(2026, 1, 2, 23, 59), "M", "L");
+		save("ORD-3", OrderStatus.PENDING, LocalDateTime.of(2026, 1, 3, 0, 0), "M", "L", "XL");
+
+		mockMvc.perform(get("/admin/orders").param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(3))
+				.andExpect(jsonPath("$.totalPages").value(2))
+				.andExpect(jsonPath("$.content.length()").value(2))
+				.andExpect(jsonPath("$.content[0].orderNumber").value("ORD-3"))
+				.andExpect(jsonPath("$.content[0].itemCount").value(3));
+
+		mockMvc.perform(get("/admin/orders").param("size", "2").param("page", "1"))
+				.andExpect(jsonPath("$.content.length()").value(1))
+				.andExpect(jsonPath("$.content[0].orderNumber").value("ORD-1"));
+
+		// The end date is inclusive: the whole of 2 January, not 3 January
+		mockMvc.perform(get("/admin/orders").param("from", "2026-01-02").param("to", "2026-01-02"))
+				.andExpect(jsonPath("$.totalElements").value(1))
+				.andExpect(jsonPath("$.content[0].orderNumber").value("ORD-2"))
+				.andExpect(jsonPath("$.content[0].itemCount").value(2));
+
+		mockMvc.perform(get("/admin/orders").param("status", "pending").param("orderNumber", "ORD-"))
+				.andExpect(jsonPath("$.totalElements").value(2));
+
+		mockMvc.perform(get("/admin/orders").param("status", "LOST"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private Order save(String orderNumber, OrderStatus status, LocalDateTime createdAt, String... sizes) {
+		Order order = TestOrders.order(admin, orderNumber, status);
+		order.setCreatedAt(createdAt);
+		for (String size : sizes) {
+			OrderItem item = new OrderItem();
+			item.setOrder(order);
+			item.setProduct(shirt);
+			item.setProductName(shirt.getName());
+			item.setQuantity(1);
+			item.setPriceMinor(shirt.getPriceMinor());
+			item.setSize(size);
+			order.getOrderItems().add(item);
+		}
+		return orderRepository.save(order);
+	}
+}
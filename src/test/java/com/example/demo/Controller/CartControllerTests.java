@@ -0,0 +1,132 @@
+package com.example.demo.Controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.Security.CurrentUser;
+import com.example.demo.service.CacheLoadExecutor;
+import com.example.demo.service.CartService;
+import com.example.demo.service.CartSummaryService;
+import com.example.demo.service.CatalogCache;
+import com.example.demo.service.GuestCartStore;
+import com.example.demo.utils.Money;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ CartController.class, CartService.class, CartSummaryService.class, CatalogCache.class, CacheLoadExecutor.class,
+		GuestCartStore.class })
+@ImportAutoConfiguration({ MetricsAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartControllerTests {
+
+	@Autowired
+	private CartController cartController;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	private MockMvc mockMvc;
+	private MyAppUser user;
+	private CartItem item;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("shopper");
+		user.setEmail("shopper@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		Product shirt = productRepository.save(new Product("Shirt", Money.ofMajor(20), 10, "Men", "Test product"));
+		item = cartItemRepository.save(new CartItem(user, shirt, 1, "M", "Blue"));
+
+		// Stands in for the security-backed resolver: every request is this user's
+		HandlerMethodArgumentResolver currentUser = new HandlerMethodArgumentResolver() {
+			@Override
+			public boolean supportsParameter(MethodParameter parameter) {
+				return parameter.hasParameterAnnotation(CurrentUser.class);
+			}
+
+			@Override
+			public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+					NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+				return user;
+			}
+		};
+		mockMvc = MockMvcBuilders.standaloneSetup(cartController).setCustomArgumentResolvers(currentUser).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		cartItemRepository.deleteAll();
+		productRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void summaryAnswersNotModifiedWhileTheCartIsUnchanged() throws Exception {
+		String etag = mockMvc.perform(get("/cart/summary"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalQuantity").value(1))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/cart/summary").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+	}
+
+	@Test
+	void cartChangesEvictTheCachedSummary() throws Exception {
+		String etag = mockMvc.perform(get("/cart/summary"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// Written behind the controller's back: no CartChangedEvent, so the cached summary stays
+		cartItemRepository.updateQuantityByIdAndUserId(item.getId(), user.getId(), 2);
+		mockMvc.perform(get("/cart/summary").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		mockMvc.perform(put("/cart/update/" + item.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"quantity\":3}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/cart/summary").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalQuantity").value(3))
+				.andExpect(jsonPath("$.itemCount").value(1));
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.demo.Controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.TestOrders;
+import com.example.demo.Security.CurrentUser;
+import com.example.demo.service.CheckoutService;
+import com.example.demo.service.HotInventoryService;
+import com.example.demo.service.OrderNumberGenerator;
+import com.example.demo.service.OrderNumberNodeLease;
+import com.example.demo.service.OrderStatusService;
+import com.example.demo.service.StockReservationService;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ OrderController.class, CheckoutService.class, StockReservationService.class, HotInventoryService.class,
+		OrderNumberGenerator.class, OrderNumberNodeLease.class, OrderStatusService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderControllerTests {
+
+	@Autowired
+	private OrderController orderController;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	private MockMvc mockMvc;
+	private MyAppUser shopper;
+	private MyAppUser currentUser;
+
+	@BeforeEach
+	void setUp() {
+		shopper = user("shopper");
+		currentUser = shopper;
+
+		// Stands in for the security-backed resolver: requests are made as currentUser
+		HandlerMethodArgumentResolver resolver = new HandlerMethodArgumentResolver() {
+			@Override
+			public boolean supportsParameter(MethodParameter parameter) {
+				return parameter.hasParameterAnnotation(CurrentUser.class);
+			}
+
+			@Override
+			public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+					NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+				return currentUser;
+			}
+		};
+		mockMvc = MockMvcBuilders.standaloneSetup(orderController).setCustomArgumentResolvers(resolver).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void orderListIsTheNewestPageOnly() throws Exception {
+		LocalDateTime start = LocalDateTime.of(2026, 1, 1, 10, 0);
+		List<Order> orders = new ArrayList<>();
+		for (int i = 1; i <= 55; i++) {
+			Order order = TestOrders.order(shopper, "ORD-" + i, OrderStatus.PENDING);
+			order.setCreatedAt(start.plusMinutes(i));
+			orders.add(order);
+		}
+		Order someoneElses = TestOrders.order(user("other"), "ORD-OTHER", OrderStatus.PENDING);
+		someoneElses.setCreatedAt(start.plusDays(1));
+		orders.add(someoneElses);
+		orderRepository.saveAll(orders);
+
+		// Capped at the largest page; the older orders are only reachable through /orders/page
+		mockMvc.perform(get("/orders"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(50))
+				.andExpect(jsonPath("$[0].orderNumber").value("ORD-55"))
+				.andExpect(jsonPath("$[49].orderNumber").value("ORD-6"));
+
+		mockMvc.perform(get("/orders/page").param("limit", "50"))
+				.andExpect(jsonPath("$.items[49].orderNumber").value("ORD-6"))
+				.andExpect(jsonPath("$.hasMore").value(true));
+
+		currentUser = null;
+		mockMvc.perform(get("/orders"))
+				.andExpect(status().isUnauthorized());
+	}
+
+	private MyAppUser user(String username) {
+		MyAppUser user = new MyAppUser();
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setPassword("secret");
+		return userRepository.save(user);
+	}
+}
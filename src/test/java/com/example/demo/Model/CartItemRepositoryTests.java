@@ -0,0 +1,131 @@
+package com.example.demo.Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.demo.utils.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CartItemRepositoryTests {
+
+	// Rendering a cart must stay a single query however many lines it has
+	private static final long MAX_CART_STATEMENTS = 1;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void cartViewLoadsAndSerializesInOneStatement() throws Exception {
+		MyAppUser user = new MyAppUser();
+		user.setUsername("shopper");
+		user.setEmail("shopper@example.com");
+		user.setPassword("secret");
+		entityManager.persist(user);
+		for (int i = 0; i < 10; i++) {
+			Product product = new Product("Product " + i, Money.ofMajor(100 + i), 50, "Kids", "Test product");
+			product.setImages(List.of("/img/" + i + "-front.jpeg", "/img/" + i + "-back.jpeg"));
+			entityManager.persist(product);
+			entityManager.persist(new CartItem(user, product, 1, "S", "Red"));
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<CartItemView> cart = cartItemRepository.findByUserWithProductAndImages(user).stream()
+				.map(CartItemView::from)
+				.toList();
+		String json = new ObjectMapper().writeValueAsString(cart);
+
+		assertEquals(10, cart.size());
+		assertEquals("/img/0-front.jpeg", cart.get(0).getImageUrl());
+		assertEquals(Money.ofMajor(100), cart.get(0).getSubtotalMinor());
+		assertTrue(json.contains("\"productName\":\"Product 9\""));
+		assertEquals(MAX_CART_STATEMENTS, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void summarizeAggregatesCartInOneStatement() {
+		MyAppUser user = new MyAppUser();
+		user.setUsername("badge");
+		user.setEmail("badge@example.com");
+		user.setPassword("secret");
+		entityManager.persist(user);
+		Product shirt = new Product("Shirt", Money.ofMajor(250), 10, "Men", "Test product");
+		Product socks = new Product("Socks", 9950, 10, "Men", "Test product");
+		entityManager.persist(shirt);
+		entityManager.persist(socks);
+		entityManager.persist(new CartItem(user, shirt, 2, "M", "Blue"));
+		entityManager.persist(new CartItem(user, socks, 3, null, null));
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		CartSummary summary = cartItemRepository.summarize(user.getId());
+
+		assertEquals(2, summary.getItemCount());
+		assertEquals(5, summary.getTotalQuantity());
+		assertEquals(2 * Money.ofMajor(250) + 3 * 9950, summary.getTotalAmountMinor());
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		CartSummary empty = cartItemRepository.summarize(-1L);
+		assertEquals(CartSummary.EMPTY.getETag(), empty.getETag());
+	}
+
+	@Test
+	void ownerScopedChangesAreSingleStatementsAndIgnoreOtherUsersLines() {
+		MyAppUser owner = new MyAppUser();
+		owner.setUsername("owner");
+		owner.setEmail("owner@example.com");
+		owner.setPassword("secret");
+		entityManager.persist(owner);
+		MyAppUser stranger = new MyAppUser();
+		stranger.setUsername("stranger");
+		stranger.setEmail("stranger@example.com");
+		stranger.setPassword("secret");
+		entityManager.persist(stranger);
+		Product product = new Product("Cap", Money.ofMajor(150), 5, "Men", "Test product");
+		entityManager.persist(product);
+		Long itemId = entityManager.persistAndGetId(new CartItem(owner, product, 1, null, null), Long.class);
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		assertEquals(0, cartItemRepository.updateQuantityByIdAndUserId(itemId, stranger.getId(), 2));
+		assertEquals(0, cartItemRepository.deleteByIdAndUserId(itemId, stranger.getId()));
+		assertEquals(0, cartItemRepository.updateQuantityByIdAndUserId(itemId, owner.getId(), 6));
+		assertEquals(1, cartItemRepository.updateQuantityByIdAndUserId(itemId, owner.getId(), 5));
+		assertEquals(4, statistics.getPrepareStatementCount());
+
+		assertEquals(5, cartItemRepository.findById(itemId).get().getQuantity());
+		assertEquals(1, cartItemRepository.deleteByIdAndUserId(itemId, owner.getId()));
+		assertFalse(cartItemRepository.existsByIdAndUserId(itemId, owner.getId()));
+	}
+}
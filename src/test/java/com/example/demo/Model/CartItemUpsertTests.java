@@ -0,0 +1,129 @@
+package com.example.demo.Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.service.SchemaMigrationService;
+import com.example.demo.utils.Money;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// ON CONFLICT and the expression index need PostgreSQL, e.g. TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/registration
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = {
+		"spring.datasource.url=${TEST_POSTGRES_URL}",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(SchemaMigrationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartItemUpsertTests {
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private MyAppUser user;
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("upsert-" + UUID.randomUUID());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		product = productRepository.save(new Product("Upsert test", Money.ofMajor(100), 20, "Kids", "Test product"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", user.getId());
+		productRepository.deleteById(product.getId());
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void concurrentAddsKeepOneLineCappedAtStock() throws Exception {
+		int threads = 8;
+		int addsPerThread = 5;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<>();
+		try {
+			for (int t = 0; t < threads; t++) {
+				Callable<Integer> adds = () -> {
+					start.await();
+					int added = 0;
+					for (int i = 0; i < addsPerThread; i++) {
+						added += cartItemRepository.addOrIncrement(user.getId(), product.getId(), 1, "M", null);
+					}
+					return added;
+				};
+				results.add(executor.submit(adds));
+			}
+			start.countDown();
+			int added = 0;
+			for (Future<Integer> result : results) {
+				added += result.get();
+			}
+
+			// 40 attempts against a stock of 20: exactly 20 go through, all into the same row
+			assertEquals(20, added);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<CartItem> lines = cartItemRepository.findByUserWithProduct(user);
+		assertEquals(1, lines.size());
+		assertEquals(20, lines.get(0).getQuantity());
+	}
+
+	@Test
+	void addIsOneStatement() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		assertEquals(1, cartItemRepository.addOrIncrement(user.getId(), product.getId(), 2, null, null));
+		assertEquals(1, cartItemRepository.addOrIncrement(user.getId(), product.getId(), 3, null, null));
+		assertEquals(0, cartItemRepository.addOrIncrement(user.getId(), product.getId(), 16, null, null));
+
+		assertEquals(3, statistics.getPrepareStatementCount());
+		List<CartItem> lines = cartItemRepository.findByUserWithProduct(user);
+		assertEquals(1, lines.size());
+		assertEquals(5, lines.get(0).getQuantity());
+	}
+}
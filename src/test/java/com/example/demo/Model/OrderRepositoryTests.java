@@ -0,0 +1,207 @@
+package com.example.demo.Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.demo.utils.Money;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryTests {
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private int orderCount;
+
+	@Test
+	void pagesOrderHistoryByCreatedAtAndIdInTwoStatementsPerPage() {
+		MyAppUser user = user("history");
+		MyAppUser other = user("other");
+		Product product = new Product("Tee", Money.ofMajor(499), 100, "Men", "Test product");
+		entityManager.persist(product);
+
+		LocalDateTime base = LocalDateTime.of(2026, 1, 1, 10, 0);
+		List<Long> newestFirst = new ArrayList<>();
+		// Two orders share a timestamp so the id has to break the tie across a page boundary
+		LocalDateTime[] times = { base, base.plusDays(1), base.plusDays(2), base.plusDays(2), base.plusDays(3) };
+		for (LocalDateTime time : times) {
+			newestFirst.add(0, order(user, product, time).getId());
+		}
+		order(other, product, base.plusDays(10));
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		List<Long> seen = new ArrayList<>();
+		OrderCursor cursor = null;
+		int pages = 0;
+		do {
+			statistics.clear();
+			List<Long> ids = cursor == null
+					? orderRepository.findIdsByUser(user, Limit.of(2))
+					: orderRepository.findIdsByUserBefore(user, cursor.getCreatedAt(), cursor.getId(), Limit.of(2));
+			if (ids.isEmpty()) {
+				break;
+			}
+			List<Order> page = orderRepository.findWithOrderItemsByIdIn(ids);
+			page.forEach(order -> assertEquals(2, order.getOrderItems().size()));
+			assertEquals(2, statistics.getPrepareStatementCount());
+
+			page.forEach(order -> seen.add(order.getId()));
+			cursor = OrderCursor.decode(OrderCursor.of(page.get(page.size() - 1)).encode());
+			pages++;
+		} while (pages < 10);
+
+		assertEquals(newestFirst, seen);
+		assertEquals(3, pages);
+	}
+
+	@Test
+	void summariesApplyEachFilter() {
+		MyAppUser user = user("admin-list");
+		Product product = new Product("Tee", Money.ofMajor(499), 100, "Men", "Test product");
+		entityManager.persist(product);
+
+		LocalDateTime base = LocalDateTime.of(2026, 1, 1, 10, 0);
+		Order pending = order(user, product, base);
+		Order paid = order(user, product, base.plusDays(1));
+		paid.setPaymentStatus("PAID");
+		Order shipped = order(user, product, base.plusDays(2));
+		shipped.setStatus(OrderStatus.SHIPPED);
+		Order prefixed = order(user, product, base.plusDays(3));
+		prefixed.setOrderNumber("WEB_7");
+		// Would match WEB_ if the underscore were left as a LIKE wildcard
+		Order lookalike = order(user, product, base.plusDays(3));
+		lookalike.setOrderNumber("WEBX7");
+		entityManager.flush();
+		entityManager.clear();
+
+		OrderSearchCriteria criteria = new OrderSearchCriteria();
+		assertEquals(List.of(lookalike.getId(), prefixed.getId(), shipped.getId(), paid.getId(), pending.getId()), ids(criteria));
+
+		criteria = new OrderSearchCriteria();
+		criteria.setStatus(OrderStatus.SHIPPED);
+		assertEquals(List.of(shipped.getId()), ids(criteria));
+
+		criteria = new OrderSearchCriteria();
+		criteria.setPaymentStatus("PAID");
+		assertEquals(List.of(paid.getId()), ids(criteria));
+
+		// From is inclusive, to is exclusive
+		criteria = new OrderSearchCriteria();
+		criteria.setCreatedFrom(base.plusDays(1));
+		criteria.setCreatedTo(base.plusDays(2));
+		assertEquals(List.of(paid.getId()), ids(criteria));
+
+		criteria = new OrderSearchCriteria();
+		criteria.setOrderNumberPrefix("WEB_");
+		assertEquals(List.of(prefixed.getId()), ids(criteria));
+
+		criteria = new OrderSearchCriteria();
+		criteria.setStatus(OrderStatus.PENDING);
+		criteria.setCreatedFrom(base.plusDays(1));
+		assertEquals(List.of(lookalike.getId(), prefixed.getId(), paid.getId()), ids(criteria));
+	}
+
+	@Test
+	void summariesArePagedNewestFirstWithTheItemCount() {
+		MyAppUser user = user("admin-pages");
+		Product product = new Product("Tee", Money.ofMajor(499), 100, "Men", "Test product");
+		entityManager.persist(product);
+
+		LocalDateTime base = LocalDateTime.of(2026, 1, 1, 10, 0);
+		List<Long> newestFirst = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			newestFirst.add(0, order(user, product, base.plusHours(i)).getId());
+		}
+		Order single = order(user, product, base.plusHours(5), "M");
+		newestFirst.add(0, single.getId());
+		Order empty = TestOrders.order(user, "ORD-EMPTY", OrderStatus.PENDING);
+		empty.setCreatedAt(base.minusHours(1));
+		newestFirst.add(entityManager.persist(empty).getId());
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		Page<OrderSummary> first = orderRepository.findSummaries(new OrderSearchCriteria(), PageRequest.of(0, 3));
+		// The page and its count; items are counted in the query, never loaded
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getCollectionLoadCount());
+
+		assertEquals(7, first.getTotalElements());
+		assertEquals(3, first.getTotalPages());
+		assertEquals(newestFirst.subList(0, 3), first.getContent().stream().map(OrderSummary::getId).toList());
+		assertEquals(List.of(1, 2, 2), first.getContent().stream().map(OrderSummary::getItemCount).toList());
+		assertEquals(single.getOrderNumber(), first.getContent().get(0).getOrderNumber());
+		assertEquals(OrderStatus.PENDING, first.getContent().get(0).getStatus());
+
+		Page<OrderSummary> second = orderRepository.findSummaries(new OrderSearchCriteria(), PageRequest.of(1, 3));
+		assertEquals(newestFirst.subList(3, 6), second.getContent().stream().map(OrderSummary::getId).toList());
+
+		Page<OrderSummary> last = orderRepository.findSummaries(new OrderSearchCriteria(), PageRequest.of(2, 3));
+		assertEquals(List.of(empty.getId()), last.getContent().stream().map(OrderSummary::getId).toList());
+		assertEquals(0, last.getContent().get(0).getItemCount());
+		assertTrue(orderRepository.findSummaries(new OrderSearchCriteria(), PageRequest.of(3, 3)).getContent().isEmpty());
+	}
+
+	private List<Long> ids(OrderSearchCriteria criteria) {
+		return orderRepository.findSummaries(criteria, PageRequest.of(0, 20)).getContent().stream()
+				.map(OrderSummary::getId)
+				.toList();
+	}
+
+	private MyAppUser user(String name) {
+		MyAppUser user = new MyAppUser();
+		user.setUsername(name);
+		user.setEmail(name + "@example.com");
+		user.setPassword("secret");
+		return entityManager.persist(user);
+	}
+
+	private Order order(MyAppUser user, Product product, LocalDateTime createdAt) {
+		return order(user, product, createdAt, "M", "L");
+	}
+
+	private Order order(MyAppUser user, Product product, LocalDateTime createdAt, String... sizes) {
+		Order order = TestOrders.order(user, "ORD-" + ++orderCount, OrderStatus.PENDING);
+		order.setTotalAmountMinor(sizes.length * product.getPriceMinor());
+		order.setCreatedAt(createdAt);
+		for (String size : sizes) {
+			OrderItem item = new OrderItem();
+			item.setOrder(order);
+			item.setProduct(product);
+			item.setProductName(product.getName());
+			item.setQuantity(1);
+			item.setPriceMinor(product.getPriceMinor());
+			item.setSize(size);
+			order.getOrderItems().add(item);
+		}
+		return entityManager.persist(order);
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.demo.Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.demo.utils.Money;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ProductRepositoryTests {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private final List<Product> products = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		// Runs of equal prices and ratings, so page boundaries fall inside ties
+		int[] prices = { 300, 100, 200, 100, 300, 100, 200, 300, 100 };
+		double[] ratings = { 4.5, 4.0, 4.5, 4.5, 3.0, 4.0, 4.5, 4.0, 3.0 };
+		for (int i = 0; i < prices.length; i++) {
+			Product product = new Product("Product " + i, Money.ofMajor(prices[i]), 10, "Kids", "Test product");
+			product.setRating(ratings[i]);
+			products.add(entityManager.persist(product));
+		}
+		Product inactive = new Product("Retired", Money.ofMajor(100), 10, "Kids", "Test product");
+		inactive.setActive(false);
+		entityManager.persist(inactive);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void newestListsTheHighestIdsFirst() {
+		List<Long> ids = page(ProductSort.NEWEST, 9);
+		assertEquals(products.get(products.size() - 1).getId(), ids.get(0));
+		assertEquals(expected(Comparator.comparing(Product::getId).reversed()), ids);
+	}
+
+	@Test
+	void cursorPagingVisitsEveryProductOnceAcrossTies() {
+		Comparator<Product> byIdDesc = Comparator.comparing(Product::getId).reversed();
+		assertPagesMatch(ProductSort.NEWEST, byIdDesc);
+		assertPagesMatch(ProductSort.PRICE_ASC,
+				Comparator.comparingLong(Product::getPriceMinor).thenComparing(Product::getId));
+		assertPagesMatch(ProductSort.PRICE_DESC,
+				Comparator.comparingLong(Product::getPriceMinor).reversed().thenComparing(byIdDesc));
+		assertPagesMatch(ProductSort.RATING,
+				Comparator.comparing(Product::getRating).reversed().thenComparing(byIdDesc));
+	}
+
+	private void assertPagesMatch(ProductSort sort, Comparator<Product> order) {
+		for (int pageSize : new int[] { 1, 2, 4 }) {
+			assertEquals(expected(order), page(sort, pageSize), sort + " with pages of " + pageSize);
+		}
+	}
+
+	// Walks the listing the way GET /products/page does, through encoded cursors
+	private List<Long> page(ProductSort sort, int pageSize) {
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		while (true) {
+			Specification<Product> spec = ProductSpecifications.active();
+			if (cursor != null) {
+				spec = spec.and(ProductSpecifications.after(sort, ProductCursor.decode(cursor)));
+			}
+			List<Product> rows = productRepository.findBy(spec, query -> query
+					.sortBy(sort.getSort())
+					.limit(pageSize + 1)
+					.all());
+			List<Product> items = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+			items.forEach(product -> seen.add(product.getId()));
+			if (rows.size() <= pageSize) {
+				return seen;
+			}
+			cursor = ProductCursor.of(sort, items.get(items.size() - 1)).encode();
+		}
+	}
+
+	private List<Long> expected(Comparator<Product> order) {
+		return products.stream().sorted(order).map(Product::getId).toList();
+	}
+}
@@ -0,0 +1,27 @@
+package com.example.demo.Model;
+
+import com.example.demo.utils.Money;
+
+// Unsaved orders with every required column filled in; tests set what they are about
+public final class TestOrders {
+
+	private TestOrders() {
+	}
+
+	public static Order order(MyAppUser user, String orderNumber, OrderStatus status) {
+		Order order = new Order();
+		order.setUser(user);
+		order.setOrderNumber(orderNumber);
+		order.setTotalAmountMinor(Money.ofMajor(499));
+		order.setStatus(status);
+		order.setPaymentMethod("COD");
+		order.setPaymentStatus("PENDING");
+		order.setShippingFullName("Test Customer");
+		order.setShippingAddressLine1("1 Test Street");
+		order.setShippingCity("Pune");
+		order.setShippingState("MH");
+		order.setShippingPincode("411001");
+		order.setShippingPhoneNumber("9999999999");
+		return order;
+	}
+}
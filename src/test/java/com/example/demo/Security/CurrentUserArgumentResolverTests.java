@@ -0,0 +1,137 @@
+package com.example.demo.Security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.service.CacheLoadExecutor;
+import com.example.demo.service.UserIdCache;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ CurrentUserArgumentResolver.class, UserIdCache.class, CacheLoadExecutor.class })
+@ImportAutoConfiguration({ MetricsAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class })
+// Users are committed: cache misses are loaded on another thread
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CurrentUserArgumentResolverTests {
+
+	@SpyBean
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private CurrentUserArgumentResolver resolver;
+
+	private MethodParameter currentUser;
+	private MyAppUser shopper;
+
+	@BeforeEach
+	void setUp() throws NoSuchMethodException {
+		currentUser = new MethodParameter(Handlers.class.getDeclaredMethod("handle", MyAppUser.class, MyAppUser.class), 0);
+		shopper = new MyAppUser();
+		shopper.setUsername("shopper");
+		shopper.setEmail("shopper@example.com");
+		shopper.setPassword("secret");
+		shopper = userRepository.save(shopper);
+	}
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void onlyAnnotatedUserParametersAreResolved() {
+		assertTrue(resolver.supportsParameter(currentUser));
+		assertFalse(resolver.supportsParameter(new MethodParameter(currentUser.getMethod(), 1)));
+	}
+
+	@Test
+	void anonymousRequestsResolveToNull() {
+		assertNull(resolve(null));
+		verify(userRepository, never()).findByUsername(anyString());
+	}
+
+	@Test
+	void aKnownUsernameIsLookedUpOnceAndThenServedFromTheCache() {
+		MyAppUser first = (MyAppUser) resolve(login("shopper"));
+		assertEquals(shopper.getId(), first.getId());
+		verify(userRepository, times(1)).findByUsername("shopper");
+
+		clearInvocations(userRepository);
+		MyAppUser second = (MyAppUser) resolve(login("shopper"));
+		assertEquals(shopper.getId(), second.getId());
+		verify(userRepository, never()).findByUsername(anyString());
+		// Only a reference: the row is not read until a handler uses it
+		assertFalse(Hibernate.isInitialized(second));
+	}
+
+	@Test
+	void bearerTokensResolveFromTheUserIdWithoutALookup() {
+		JwtPrincipal principal = new JwtPrincipal(shopper.getId(), "shopper");
+		MyAppUser user = (MyAppUser) resolve(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+
+		assertEquals(shopper.getId(), user.getId());
+		verify(userRepository, never()).findByUsername(anyString());
+	}
+
+	@Test
+	void anUnknownUsernameResolvesToNullAndIsNotCached() {
+		assertNull(resolve(login("newcomer")));
+		verify(userRepository, times(1)).findByUsername("newcomer");
+
+		// Registering afterwards is seen on the next request
+		MyAppUser newcomer = new MyAppUser();
+		newcomer.setUsername("newcomer");
+		newcomer.setEmail("newcomer@example.com");
+		newcomer.setPassword("secret");
+		newcomer = userRepository.save(newcomer);
+
+		assertEquals(newcomer.getId(), ((MyAppUser) resolve(login("newcomer"))).getId());
+		verify(userRepository, times(2)).findByUsername("newcomer");
+	}
+
+	private Object resolve(Principal principal) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setUserPrincipal(principal);
+		return resolver.resolveArgument(currentUser, null, new ServletWebRequest(request), null);
+	}
+
+	// A session login: only the username is known
+	private static Principal login(String username) {
+		return new UsernamePasswordAuthenticationToken(username, null, List.of());
+	}
+
+	private static class Handlers {
+		@SuppressWarnings("unused")
+		void handle(@CurrentUser MyAppUser user, MyAppUser other) {
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.demo.Security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.demo.utils.JwtTokenUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtAuthenticationFilterTests {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(
+			"0123456789abcdef0123456789abcdef".getBytes());
+
+	// Two "nodes" configured with the same secret
+	private final JwtTokenUtil nodeA = new JwtTokenUtil(new SimpleMeterRegistry(), SECRET,
+			Duration.ofHours(24), Duration.ofHours(1), 100);
+	private final JwtTokenUtil nodeB = new JwtTokenUtil(new SimpleMeterRegistry(), SECRET,
+			Duration.ofHours(24), Duration.ofHours(1), 100);
+
+	private Authentication filter(JwtTokenUtil jwt, String authorization) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cart");
+		if (authorization != null) {
+			request.addHeader("Authorization", authorization);
+		}
+		AtomicReference<Authentication> seen = new AtomicReference<>();
+		try {
+			new JwtAuthenticationFilter(jwt).doFilter(request, new MockHttpServletResponse(),
+					(req, res) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+		return seen.get();
+	}
+
+	@Test
+	void accessTokenFromOneNodeAuthenticatesOnAnother() throws Exception {
+		String token = nodeA.generateAccessToken(42L, "shopper", List.of("ROLE_USER"));
+
+		Authentication authentication = filter(nodeB, "Bearer " + token);
+
+		JwtPrincipal principal = (JwtPrincipal) authentication.getPrincipal();
+		assertEquals(42L, principal.getUserId());
+		assertEquals("shopper", authentication.getName());
+		assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+	}
+
+	@Test
+	void verificationAndInvalidTokensStayAnonymous() throws Exception {
+		assertNull(filter(nodeA, "Bearer " + nodeA.generateToken("shopper@example.com")));
+		assertNull(filter(nodeA, "Bearer not-a-token"));
+		assertNull(filter(nodeA, null));
+		assertNull(filter(new JwtTokenUtil(new SimpleMeterRegistry(), "",
+				Duration.ofHours(24), Duration.ofHours(1), 100),
+				"Bearer " + nodeA.generateAccessToken(42L, "shopper", List.of())));
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.demo.Security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import com.example.demo.service.LoginAttemptService;
+
+class PasswordHashingTests {
+
+	private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(6);
+	private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegating(bcrypt), 2, 8, Duration.ofSeconds(5));
+
+	@AfterEach
+	void tearDown() {
+		encoder.close();
+	}
+
+	private static DelegatingPasswordEncoder delegating(BCryptPasswordEncoder bcrypt) {
+		DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+		delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+		return delegating;
+	}
+
+	@Test
+	void legacyHashesMatchAndAreUpgradedOnLogin() {
+		String legacy = new BCryptPasswordEncoder(4).encode("secret");
+		InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+				User.withUsername("shopper").password(legacy).roles("USER").build());
+		ThrottledAuthenticationProvider provider = new ThrottledAuthenticationProvider(new LoginAttemptService(5, Duration.ofMinutes(15), 100));
+		provider.setUserDetailsService(users);
+		provider.setUserDetailsPasswordService(users);
+		provider.setPasswordEncoder(encoder);
+
+		provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("shopper", "secret"));
+
+		String upgraded = users.loadUserByUsername("shopper").getPassword();
+		assertTrue(upgraded.startsWith("{bcrypt}$2a$06$"));
+		assertTrue(encoder.matches("secret", upgraded));
+		assertFalse(encoder.upgradeEncoding(upgraded));
+	}
+
+	@Test
+	void blockedUsernamesAreRefusedWithoutHashing() {
+		AtomicInteger hashes = new AtomicInteger();
+		PasswordEncoder counting = new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				return encoder.encode(rawPassword);
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				hashes.incrementAndGet();
+				return encoder.matches(rawPassword, encodedPassword);
+			}
+		};
+		UserDetails user = User.withUsername("shopper").password(encoder.encode("secret")).roles("USER").build();
+		ThrottledAuthenticationProvider provider = new ThrottledAuthenticationProvider(new LoginAttemptService(3, Duration.ofMinutes(15), 100));
+		provider.setUserDetailsService(new InMemoryUserDetailsManager(user));
+		provider.setPasswordEncoder(counting);
+
+		for (int i = 0; i < 3; i++) {
+			assertThrows(BadCredentialsException.class, () ->
+					provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("shopper", "wrong")));
+		}
+		int hashesBeforeBlock = hashes.get();
+		assertThrows(LockedException.class, () ->
+				provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("Shopper", "secret")));
+		assertEquals(hashesBeforeBlock, hashes.get());
+	}
+
+	@Test
+	void failuresFromOneAddressDoNotLockOutAnother() {
+		UserDetails user = User.withUsername("shopper").password(encoder.encode("secret")).roles("USER").build();
+		ThrottledAuthenticationProvider provider = new ThrottledAuthenticationProvider(new LoginAttemptService(3, Duration.ofMinutes(15), 100));
+		provider.setUserDetailsService(new InMemoryUserDetailsManager(user));
+		provider.setPasswordEncoder(encoder);
+
+		for (int i = 0; i < 3; i++) {
+			assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("203.0.113.7", "wrong")));
+		}
+		assertThrows(LockedException.class, () -> provider.authenticate(login("203.0.113.7", "secret")));
+
+		// The owner, logging in from their own address, is not affected
+		assertTrue(provider.authenticate(login("198.51.100.20", "secret")).isAuthenticated());
+	}
+
+	private static UsernamePasswordAuthenticationToken login(String remoteAddress, String password) {
+		UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.unauthenticated("shopper", password);
+		token.setDetails(new WebAuthenticationDetails(remoteAddress, null));
+		return token;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.service.EmailTemplateRenderer;
+
+/**
+ * Per-message cost of rendering the verification email body: the cached
+ * Thymeleaf template against the String.formatted version it replaced.
+ *
+ * Run with: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.example.demo.benchmark.EmailRenderBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailRenderBenchmark {
+
+	private static final String TITLE = "Email Verification";
+	private static final String MESSAGE = "Click the button below to verify your email address:";
+
+	private static final String FORMATTED_TEMPLATE = """
+			<div style="font-family: Arial, sans-serif; max-width: 600px; margin: auto; padding: 20px; border-radius: 8px; background-color: #f9f9f9; text-align: center;">
+			    <h2 style="color: #333;">%s</h2>
+			    <p style="font-size: 16px; color: #555;">%s</p>
+			    <a href="%s" style="display: inline-block; margin: 20px 0; padding: 10px 20px; font-size: 16px; color: #fff; background-color: #007bff; text-decoration: none; border-radius: 5px;">Proceed</a>
+			    <p style="font-size: 14px; color: #777;">Or copy and paste this link into your browser:</p>
+			    <p style="font-size: 14px; color: #007bff;">%s</p>
+			    <p style="font-size: 12px; color: #aaa;">This is an automated message. Please do not reply.</p>
+			</div>
+			""";
+
+	private EmailTemplateRenderer renderer;
+	private long token;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		renderer = new EmailTemplateRenderer();
+		renderer.precompile();
+	}
+
+	private String actionUrl() {
+		return "http://localhost:8080/req/signup/verify?token=" + token++;
+	}
+
+	@Benchmark
+	public String template() {
+		return renderer.renderAction(TITLE, MESSAGE, actionUrl());
+	}
+
+	@Benchmark
+	public String stringFormatted() {
+		String url = actionUrl();
+		return FORMATTED_TEMPLATE.formatted(TITLE, MESSAGE, url, url);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(EmailRenderBenchmark.class.getSimpleName()).build()).run();
+	}
+}
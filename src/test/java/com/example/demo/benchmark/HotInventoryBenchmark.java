@@ -0,0 +1,117 @@
+package com.example.demo.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.service.StripedStockCounter;
+
+/**
+ * Reserving one unit of a single hot SKU from many threads: the in-memory
+ * striped counter against a conditional row update (H2 in-memory here, so
+ * the row-update numbers are a lower bound on the PostgreSQL cost).
+ *
+ * Run with: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.example.demo.benchmark.HotInventoryBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class HotInventoryBenchmark {
+
+	private static final long STOCK = Long.MAX_VALUE / 2;
+
+	@State(Scope.Benchmark)
+	public static class CounterState {
+		StripedStockCounter counter;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			counter = new StripedStockCounter(STOCK, Runtime.getRuntime().availableProcessors());
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class DatabaseState {
+		JdbcDataSource dataSource;
+		Connection keepAlive;
+
+		@Setup(Level.Trial)
+		public void setUp() throws SQLException {
+			dataSource = new JdbcDataSource();
+			dataSource.setURL("jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1");
+			keepAlive = dataSource.getConnection();
+			try (Statement statement = keepAlive.createStatement()) {
+				statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock BIGINT NOT NULL, active BOOLEAN NOT NULL)");
+				statement.execute("INSERT INTO products VALUES (1, " + STOCK + ", TRUE)");
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws SQLException {
+			try (Statement statement = keepAlive.createStatement()) {
+				statement.execute("DROP TABLE products");
+			}
+			keepAlive.close();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ConnectionState {
+		Connection connection;
+		PreparedStatement reserve;
+
+		@Setup(Level.Trial)
+		public void setUp(DatabaseState database) throws SQLException {
+			connection = database.dataSource.getConnection();
+			reserve = connection.prepareStatement(
+					"UPDATE products SET stock = stock - ? WHERE id = ? AND active = TRUE AND stock >= ?");
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws SQLException {
+			reserve.close();
+			connection.close();
+		}
+	}
+
+	@Benchmark
+	public boolean stripedCounter(CounterState state) {
+		return state.counter.tryAcquire(1);
+	}
+
+	@Benchmark
+	public int conditionalRowUpdate(ConnectionState state) throws SQLException {
+		state.reserve.setInt(1, 1);
+		state.reserve.setLong(2, 1L);
+		state.reserve.setInt(3, 1);
+		return state.reserve.executeUpdate();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(HotInventoryBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.demo.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.service.OrderNumberGenerator;
+
+/**
+ * Issuing order numbers from many threads: the time-ordered generator
+ * against the previous random UUID prefix (which also contends, on the
+ * SecureRandom behind UUID.randomUUID).
+ *
+ * Run with: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.example.demo.benchmark.OrderNumberBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class OrderNumberBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class GeneratorState {
+		OrderNumberGenerator generator;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			generator = new OrderNumberGenerator(1);
+		}
+	}
+
+	@Benchmark
+	public String timeOrdered(GeneratorState state) {
+		return state.generator.next();
+	}
+
+	@Benchmark
+	public String randomUuidPrefix() {
+		return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(OrderNumberBenchmark.class.getSimpleName()).build()).run();
+	}
+}
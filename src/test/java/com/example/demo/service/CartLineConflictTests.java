@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.CartOperation;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.utils.Money;
+
+import jakarta.servlet.http.Cookie;
+
+// The unique cart line index is PostgreSQL-only, e.g. TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/registration
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = "spring.datasource.url=${TEST_POSTGRES_URL}")
+@Import({ CartService.class, GuestCartStore.class, CatalogCache.class, CacheLoadExecutor.class, SchemaMigrationService.class })
+@ImportAutoConfiguration({ MetricsAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartLineConflictTests {
+
+	@SpyBean
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private GuestCartStore guestCartStore;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MyAppUser user;
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("conflict-" + UUID.randomUUID());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		product = productRepository.save(new Product("Conflict test", Money.ofMajor(100), 20, "Kids", "Test product"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", user.getId());
+		productRepository.deleteById(product.getId());
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void batchAddRacingAnotherAddTopsUpTheLine() {
+		// Another tab adds the same line after the batch has read the cart
+		doAnswer(invocation -> {
+			Object cart = delegate(invocation);
+			addFromAnotherRequest(2);
+			return cart;
+		}).doAnswer(this::delegate).when(cartItemRepository).findByUserWithProductAndImages(any());
+
+		cartService.applyBatch(user, List.of(CartOperation.add(product.getId(), 3, "M", null)));
+
+		assertLine(5);
+	}
+
+	@Test
+	void guestMergeRacingAnotherAddTopsUpTheLine() {
+		String cartId = guestCartStore.getOrCreateCartId(new MockHttpServletRequest(), new MockHttpServletResponse());
+		guestCartStore.add(cartId, product.getId(), "M", null, 3, product.getStock());
+		doAnswer(invocation -> {
+			Object line = delegate(invocation);
+			addFromAnotherRequest(2);
+			return line;
+		}).doAnswer(this::delegate).when(cartItemRepository).findByUserAndProductAndSizeAndColor(any(), any(), eq("M"), any());
+
+		MockHttpServletRequest login = new MockHttpServletRequest();
+		login.setCookies(new Cookie(GuestCartStore.COOKIE_NAME, cartId));
+		guestCartStore.mergeOnLogin(login, new MockHttpServletResponse(), user.getId());
+
+		assertLine(5);
+		assertEquals(List.of(), guestCartStore.lines(cartId));
+	}
+
+	// The spy wraps the repository proxy, so the real call goes through its default answer
+	private Object delegate(InvocationOnMock invocation) throws Throwable {
+		return Mockito.mockingDetails(invocation.getMock()).getMockCreationSettings().getDefaultAnswer().answer(invocation);
+	}
+
+	// Committed on its own connection, like a concurrent request
+	private void addFromAnotherRequest(int quantity) {
+		CompletableFuture.runAsync(() -> cartItemRepository.addOrIncrement(user.getId(), product.getId(), quantity, "M", null))
+				.join();
+	}
+
+	private void assertLine(int quantity) {
+		List<CartItem> lines = cartItemRepository.findByUserWithProduct(user);
+		assertEquals(1, lines.size());
+		assertEquals(quantity, lines.get(0).getQuantity());
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.CartItemView;
+import com.example.demo.Model.CartOperation;
+import com.example.demo.Model.CartTotals;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.utils.Money;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.jdbc.batch_size=50"
+})
+@Import(CartService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceTests {
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private MyAppUser user;
+	private List<Product> products;
+	private List<CartItem> items;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("shopper");
+		user.setEmail("shopper@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		products = productRepository.saveAll(List.of(
+				new Product("Shirt", Money.ofMajor(20), 10, "Men", "Test product"),
+				new Product("Dress", Money.ofMajor(40), 10, "Women", "Test product"),
+				new Product("Scarf", Money.ofMajor(10), 10, "Women", "Test product"),
+				new Product("Socks", Money.ofMajor(5), 3, "Men", "Test product")));
+		items = cartItemRepository.saveAll(List.of(
+				new CartItem(user, products.get(0), 1, "M", "Blue"),
+				new CartItem(user, products.get(1), 1, "S", "Red")));
+	}
+
+	@AfterEach
+	void tearDown() {
+		cartItemRepository.deleteAll();
+		productRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void appliesAllOperationsWithAFewStatements() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		CartTotals cart = cartService.applyBatch(user, List.of(
+				CartOperation.update(items.get(0).getId(), 3),
+				CartOperation.remove(items.get(1).getId()),
+				CartOperation.add(products.get(2).getId(), 2, null, "Green"),
+				CartOperation.add(products.get(3).getId(), 1, "One", null),
+				CartOperation.add(products.get(0).getId(), 1, "M", "Blue")));
+
+		// Cart join, product IN query, one insert per new line (identity ids), batched update and delete
+		assertTrue(statistics.getPrepareStatementCount() <= 6, statistics.getPrepareStatementCount() + " statements");
+
+		Map<String, Integer> quantities = cartItemRepository.findByUserWithProduct(user).stream()
+				.collect(Collectors.toMap(item -> item.getProduct().getName(), CartItem::getQuantity));
+		assertEquals(Map.of("Shirt", 4, "Scarf", 2, "Socks", 1), quantities);
+		assertEquals(3, cart.getItemCount());
+		assertEquals(7, cart.getTotalQuantity());
+		assertEquals(Money.ofMajor(4 * 20 + 2 * 10 + 5), cart.getTotalAmountMinor());
+	}
+
+	@Test
+	void rejectedOperationRollsBackTheBatch() {
+		CartUpdateException e = assertThrows(CartUpdateException.class, () -> cartService.applyBatch(user, List.of(
+				CartOperation.update(items.get(0).getId(), 5),
+				CartOperation.remove(items.get(1).getId()),
+				CartOperation.add(products.get(3).getId(), 4, null, null))));
+		assertEquals("Insufficient stock for Socks", e.getMessage());
+
+		List<Integer> quantities = cartItemRepository.findByUserWithProduct(user).stream()
+				.map(CartItem::getQuantity)
+				.toList();
+		assertEquals(List.of(1, 1), quantities);
+	}
+
+	@Test
+	void itemsOfOtherUsersAreNotFound() {
+		MyAppUser other = new MyAppUser();
+		other.setUsername("other");
+		other.setEmail("other@example.com");
+		other.setPassword("secret");
+		MyAppUser otherUser = userRepository.save(other);
+
+		assertThrows(CartUpdateException.class, () -> cartService.applyBatch(otherUser, List.of(
+				CartOperation.remove(items.get(0).getId()))));
+		assertEquals(List.of(items.get(0).getId(), items.get(1).getId()), cartItemRepository.findByUserWithProduct(user).stream()
+				.map(CartItem::getId)
+				.toList());
+		assertEquals(List.of(1, 2), cartService.applyBatch(user, List.of(CartOperation.update(items.get(1).getId(), 2)))
+				.getItems().stream().map(CartItemView::getQuantity).toList());
+	}
+}
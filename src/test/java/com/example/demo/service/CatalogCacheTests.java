@@ -0,0 +1,151 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.utils.Money;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ CatalogCache.class, CacheLoadExecutor.class })
+// A simple registry, so the cache meters record values
+@ImportAutoConfiguration({ MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+		CompositeMeterRegistryAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogCacheTests {
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Product shirt;
+
+	@BeforeEach
+	void setUp() {
+		shirt = new Product("Shirt", Money.ofMajor(20), 10, "Men", "Test product");
+		shirt.setImages(List.of("/images/shirt-front.jpg", "/images/shirt-back.jpg"));
+		shirt = productRepository.save(shirt);
+	}
+
+	@AfterEach
+	void tearDown() {
+		productRepository.deleteAll();
+		catalogCache.invalidateAll();
+	}
+
+	@Test
+	void cachedProductsAreDetachedFromTheCallersPersistenceContext() {
+		// Stands in for a request under open-session-in-view
+		Product cached = transactionTemplate.execute(status -> {
+			Product product = catalogCache.findActiveById(shirt.getId()).get();
+			assertFalse(entityManager.contains(product));
+			// A change made by the caller is not flushed with its transaction
+			product.setName("Renamed by a request");
+			return product;
+		});
+
+		assertTrue(Hibernate.isInitialized(cached.getImages()));
+		assertEquals(2, cached.getImages().size());
+		assertEquals("Shirt", productRepository.findById(shirt.getId()).get().getName());
+
+		List<Product> category = transactionTemplate.execute(status -> {
+			List<Product> products = catalogCache.findActiveByCategory("Men");
+			assertFalse(entityManager.contains(products.get(0)));
+			return products;
+		});
+		assertTrue(Hibernate.isInitialized(category.get(0).getImages()));
+	}
+
+	@Test
+	void hitsReturnTheCachedInstanceUntilTheProductIsWritten() {
+		Product first = catalogCache.findActiveById(shirt.getId()).get();
+		List<Product> men = catalogCache.findActiveByCategory("Men");
+		assertSame(first, catalogCache.findActiveById(shirt.getId()).get());
+		assertSame(men, catalogCache.findActiveByCategory("Men"));
+
+		Product product = productRepository.findById(shirt.getId()).get();
+		product.setCategory("Women");
+		productRepository.save(product);
+
+		assertEquals("Women", catalogCache.findActiveById(shirt.getId()).get().getCategory());
+		assertTrue(catalogCache.findActiveByCategory("Men").isEmpty());
+		assertEquals(1, catalogCache.findActiveByCategory("Women").size());
+
+		product = productRepository.findById(shirt.getId()).get();
+		product.setActive(false);
+		productRepository.save(product);
+
+		assertTrue(catalogCache.findActiveById(shirt.getId()).isEmpty());
+		assertTrue(catalogCache.findActiveByCategory("Women").isEmpty());
+	}
+
+	@Test
+	void publishesLoadCountsAndLoadTime() {
+		String[] caches = { "catalog.productsById", "catalog.productsByCategory" };
+		double[] loadsBefore = new double[caches.length];
+		double[] loadTimeBefore = new double[caches.length];
+		for (int i = 0; i < caches.length; i++) {
+			loadsBefore[i] = loads(caches[i]).count();
+			loadTimeBefore[i] = loadTime(caches[i]).value(TimeUnit.NANOSECONDS);
+		}
+
+		catalogCache.findActiveById(shirt.getId());
+		catalogCache.findActiveById(shirt.getId());
+		catalogCache.findActiveByCategory("Men");
+
+		for (int i = 0; i < caches.length; i++) {
+			assertEquals(loadsBefore[i] + 1, loads(caches[i]).count(), caches[i]);
+			assertTrue(loadTime(caches[i]).value(TimeUnit.NANOSECONDS) > loadTimeBefore[i], caches[i]);
+		}
+	}
+
+	private FunctionCounter loads(String cache) {
+		FunctionCounter loads = meterRegistry.find("cache.load").tags("cache", cache, "result", "success").functionCounter();
+		assertNotNull(loads, cache);
+		return loads;
+	}
+
+	private TimeGauge loadTime(String cache) {
+		TimeGauge loadTime = meterRegistry.find("cache.load.duration").tag("cache", cache).timeGauge();
+		assertNotNull(loadTime, cache);
+		return loadTime;
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.example.demo.Model.Address;
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderItem;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.Product;
+import com.example.demo.utils.Money;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ CheckoutService.class, StockReservationService.class, HotInventoryService.class, OrderNumberGenerator.class,
+		OrderNumberNodeLease.class })
+class CheckoutServiceTests {
+
+	@Autowired
+	private CheckoutService checkoutService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void checkoutStatementCountDoesNotGrowWithCartSize() {
+		// Warm up the id pools so neither measured run has to hit a sequence
+		placeOrderWithItems(1);
+
+		long singleLine = placeOrderWithItems(1);
+		long manyLines = placeOrderWithItems(20);
+
+		assertEquals(singleLine, manyLines);
+		assertTrue(manyLines <= 6, "checkout used " + manyLines + " statements");
+	}
+
+	@Test
+	void checkoutCopiesCartIntoOrderAndClearsCart() {
+		MyAppUser user = newUser("buyer");
+		Address address = newAddress(user);
+		cartWith(user, 3);
+		entityManager.flush();
+		entityManager.clear();
+
+		Order order = checkoutService.placeOrder(user, address.getId(), "CASH");
+		entityManager.flush();
+		entityManager.clear();
+
+		Order saved = orderRepository.findById(order.getId()).orElseThrow();
+		assertEquals(3, saved.getOrderItems().size());
+		assertEquals(Set.of("/img/0-front.jpeg", "/img/1-front.jpeg", "/img/2-front.jpeg"), saved.getOrderItems().stream()
+				.map(OrderItem::getProductImage)
+				.collect(Collectors.toSet()));
+		assertEquals(Money.ofMajor(3 * 2 * 500), saved.getTotalAmountMinor());
+		assertTrue(cartItemRepository.findByUser(user).isEmpty());
+	}
+
+	private long placeOrderWithItems(int lines) {
+		MyAppUser user = newUser("user" + System.nanoTime());
+		Address address = newAddress(user);
+		cartWith(user, lines);
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics.clear();
+		checkoutService.placeOrder(user, address.getId(), "CASH");
+		entityManager.flush();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private MyAppUser newUser(String username) {
+		MyAppUser user = new MyAppUser();
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setPassword("secret");
+		return entityManager.persist(user);
+	}
+
+	private Address newAddress(MyAppUser user) {
+		Address address = new Address();
+		address.setUser(user);
+		address.setFullName("Test User");
+		address.setAddressLine1("1 Test Street");
+		address.setCity("Pune");
+		address.setState("MH");
+		address.setPincode("411001");
+		address.setPhoneNumber("9999999999");
+		return entityManager.persist(address);
+	}
+
+	private void cartWith(MyAppUser user, int lines) {
+		for (int i = 0; i < lines; i++) {
+			Product product = new Product("Product " + i, Money.ofMajor(500), 100, "Men", "Test product");
+			// Several images per product: the cart read must not fan out per image
+			product.setImages(List.of("/img/" + i + "-front.jpeg", "/img/" + i + "-back.jpeg", "/img/" + i + "-side.jpeg"));
+			entityManager.persist(product);
+			entityManager.persist(new CartItem(user, product, 2, "M", "Blue"));
+		}
+	}
+}
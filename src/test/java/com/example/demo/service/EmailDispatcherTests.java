@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.OutboundEmail;
+import com.example.demo.Model.OutboundEmailRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.mail.host=localhost",
+		"spring.mail.port=3025",
+		"spring.mail.username=shop@example.com",
+		"spring.mail.password=",
+		"spring.mail.properties.mail.smtp.auth=false",
+		"spring.mail.properties.mail.smtp.starttls.enable=false",
+		"app.mail.retry-backoff=0s",
+		"app.mail.poll-interval-ms=200"
+})
+@Import(EmailDispatcher.class)
+@ImportAutoConfiguration(MailSenderAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailDispatcherTests {
+
+	// Local stand-in SMTP server on port 3025, restarted for every test
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP)
+			.withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+	@Autowired
+	private EmailDispatcher emailDispatcher;
+
+	@Autowired
+	private OutboundEmailRepository outboundEmailRepository;
+
+	@AfterEach
+	void tearDown() {
+		outboundEmailRepository.deleteAll();
+	}
+
+	@Test
+	void deliversQueuedMessagesInTheBackground() throws Exception {
+		for (int i = 0; i < 30; i++) {
+			emailDispatcher.enqueue("user" + i + "@example.com", "Email Verification", "<p>Hello " + i + "</p>");
+		}
+
+		assertTrue(smtp.waitForIncomingEmail(10_000, 30));
+		awaitAll(email -> OutboundEmail.SENT.equals(email.getStatus()));
+		assertEquals(30, smtp.getReceivedMessages().length);
+	}
+
+	@Test
+	void retriesUntilTheServerIsBack() throws Exception {
+		smtp.stop();
+
+		long begin = System.nanoTime();
+		emailDispatcher.enqueue("late@example.com", "Password Reset Request", "<p>Reset</p>");
+		long enqueueMillis = (System.nanoTime() - begin) / 1_000_000;
+		// The caller only pays for the outbox insert, never for the failed SMTP connection
+		assertTrue(enqueueMillis < 1_000, "enqueue took " + enqueueMillis + " ms");
+
+		awaitAll(email -> email.getAttempts() > 0);
+		OutboundEmail failed = outboundEmailRepository.findAll().get(0);
+		assertEquals(OutboundEmail.PENDING, failed.getStatus());
+		assertNotNull(failed.getLastError());
+
+		smtp.start();
+		assertTrue(smtp.waitForIncomingEmail(10_000, 1));
+		awaitAll(email -> OutboundEmail.SENT.equals(email.getStatus()));
+	}
+
+	@Test
+	void onlyOneInstanceClaimsARowAndAbandonedClaimsAreTakenOver() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		OutboundEmail pending = new OutboundEmail("first@example.com", "Order Confirmation", "<p>Thanks</p>");
+		// Due in the future, so the background poll leaves it alone while the test claims it
+		pending.setNextAttemptAt(now.plusHours(1));
+		Long pendingId = outboundEmailRepository.save(pending).getId();
+
+		// Two instances that queued the same id: the first claim wins, the second gets nothing
+		List<Long> ids = List.of(pendingId);
+		assertEquals(ids, emailDispatcher.claim(ids, now.plusHours(2)));
+		assertEquals(List.of(), emailDispatcher.claim(ids, now.plusHours(2)));
+		assertEquals(OutboundEmail.SENDING, outboundEmailRepository.findById(pendingId).get().getStatus());
+
+		// Claimed by an instance that died: picked up by the poll once its lease has run out
+		OutboundEmail abandoned = new OutboundEmail("second@example.com", "Order Confirmation", "<p>Thanks</p>");
+		abandoned.setStatus(OutboundEmail.SENDING);
+		abandoned.setLeaseUntil(now.minusMinutes(1));
+		Long abandonedId = outboundEmailRepository.save(abandoned).getId();
+
+		assertTrue(smtp.waitForIncomingEmail(10_000, 1));
+		awaitAll(email -> email.getId().equals(pendingId) || OutboundEmail.SENT.equals(email.getStatus()));
+		OutboundEmail sent = outboundEmailRepository.findById(abandonedId).get();
+		assertEquals(OutboundEmail.SENT, sent.getStatus());
+		assertNull(sent.getLeaseUntil());
+		assertEquals(1, smtp.getReceivedMessages().length);
+		assertEquals(OutboundEmail.SENDING, outboundEmailRepository.findById(pendingId).get().getStatus());
+	}
+
+	private void awaitAll(Predicate<OutboundEmail> condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!outboundEmailRepository.findAll().stream().allMatch(condition)) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for the outbox");
+			Thread.sleep(50);
+		}
+	}
+}
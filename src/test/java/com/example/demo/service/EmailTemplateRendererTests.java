@@ -0,0 +1,23 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class EmailTemplateRendererTests {
+
+	@Test
+	void rendersActionEmailWithEscapedText() {
+		EmailTemplateRenderer renderer = new EmailTemplateRenderer();
+		renderer.precompile();
+
+		String html = renderer.renderAction("Email Verification", "Click <here> & verify",
+				"https://shop.example.com/req/signup/verify?token=abc");
+
+		assertTrue(html.contains("<h2 style=\"color: #333;\">Email Verification</h2>"));
+		assertTrue(html.contains("Click &lt;here&gt; &amp; verify"));
+		assertTrue(html.contains("href=\"https://shop.example.com/req/signup/verify?token=abc\""));
+		assertFalse(html.contains("th:text"));
+	}
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.CartItem;
+import com.example.demo.Model.CartItemRepository;
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.utils.Money;
+
+import jakarta.servlet.http.Cookie;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"app.guest-cart.max-lines-per-cart=3"
+})
+@Import({ GuestCartStore.class, CatalogCache.class, CacheLoadExecutor.class })
+@ImportAutoConfiguration({ MetricsAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class })
+// CatalogCache loads in its own transaction, so the products have to be committed
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GuestCartStoreTests {
+
+	@Autowired
+	private GuestCartStore guestCartStore;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@AfterEach
+	void tearDown() {
+		cartItemRepository.deleteAll();
+		productRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void issuesCookieAndKeepsLinesInMemory() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		String cartId = guestCartStore.getOrCreateCartId(new MockHttpServletRequest(), response);
+		assertTrue(response.getHeader(HttpHeaders.SET_COOKIE).startsWith(GuestCartStore.COOKIE_NAME + "=" + cartId));
+
+		assertEquals(GuestCartStore.AddResult.ADDED, guestCartStore.add(cartId, 1L, "M", "Red", 2, 5));
+		assertEquals(GuestCartStore.AddResult.ADDED, guestCartStore.add(cartId, 1L, "M", "Red", 3, 5));
+		assertEquals(GuestCartStore.AddResult.INSUFFICIENT_STOCK, guestCartStore.add(cartId, 1L, "M", "Red", 1, 5));
+		assertEquals(GuestCartStore.AddResult.ADDED, guestCartStore.add(cartId, 1L, "L", "Red", 1, 5));
+		assertEquals(GuestCartStore.AddResult.ADDED, guestCartStore.add(cartId, 2L, null, null, 1, 5));
+		assertEquals(GuestCartStore.AddResult.CART_FULL, guestCartStore.add(cartId, 3L, null, null, 1, 5));
+
+		assertEquals(3, guestCartStore.lines(cartId).size());
+		assertEquals(5, guestCartStore.lines(cartId).get(0).quantity());
+		assertEquals(0, cartItemRepository.count());
+
+		long lineId = guestCartStore.lines(cartId).get(1).id();
+		assertTrue(guestCartStore.remove(cartId, lineId));
+		assertEquals(2, guestCartStore.lines(cartId).size());
+	}
+
+	@Test
+	void mergesIntoUserCartOnLogin() {
+		MyAppUser user = new MyAppUser();
+		user.setUsername("shopper");
+		user.setEmail("shopper@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		Product shirt = productRepository.save(new Product("Shirt", Money.ofMajor(20), 4, "Men", "Test product"));
+		Product dress = productRepository.save(new Product("Dress", Money.ofMajor(40), 10, "Women", "Test product"));
+		cartItemRepository.save(new CartItem(user, shirt, 2, "M", "Blue"));
+
+		String cartId = guestCartStore.getOrCreateCartId(new MockHttpServletRequest(), new MockHttpServletResponse());
+		guestCartStore.add(cartId, shirt.getId(), "M", "Blue", 3, 4);
+		guestCartStore.add(cartId, dress.getId(), "S", "Red", 1, 10);
+
+		MockHttpServletRequest loginRequest = new MockHttpServletRequest();
+		loginRequest.setCookies(new Cookie(GuestCartStore.COOKIE_NAME, cartId));
+		MockHttpServletResponse loginResponse = new MockHttpServletResponse();
+		guestCartStore.mergeOnLogin(loginRequest, loginResponse, user.getId());
+
+		Map<String, Integer> quantities = cartItemRepository.findByUserWithProduct(user).stream()
+				.collect(Collectors.toMap(item -> item.getProduct().getName(), CartItem::getQuantity));
+		// Summed with the existing line but capped at the stock of 4
+		assertEquals(Map.of("Shirt", 4, "Dress", 1), quantities);
+		assertTrue(guestCartStore.lines(cartId).isEmpty());
+		assertTrue(loginResponse.getHeader(HttpHeaders.SET_COOKIE).contains("Max-Age=0"));
+	}
+}
@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderItem;
+import com.example.demo.Model.OrderItemRepository;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.Model.TestOrders;
+
+// Settling is PostgreSQL SQL, e.g. TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/registration
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = {
+		"spring.datasource.url=${TEST_POSTGRES_URL}",
+		"app.inventory.hot-product-ids=" + HotInventoryServiceTests.PRODUCT_ID,
+		"app.inventory.stripes=4",
+		"app.inventory.flush-interval-ms=3600000"
+})
+@Import({ HotInventoryService.class, StockReservationService.class, SchemaMigrationService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotInventoryServiceTests {
+
+	// Configured before the context starts, so the row is inserted with a fixed id
+	static final long PRODUCT_ID = 990_001L;
+
+	@Autowired
+	private HotInventoryService hotInventoryService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private StockReservationService stockReservationService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private MyAppUser user;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("hot-" + UUID.randomUUID());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		jdbcTemplate.update("""
+				INSERT INTO products (id, name, price, stock, category, description, active, rating, review_count)
+				VALUES (?, 'Drop sneaker', 999900, 5, 'Men', 'Test product', true, 0, 0)
+				""", PRODUCT_ID);
+		hotInventoryService.loadCounters();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_items WHERE product_id = ?", PRODUCT_ID);
+		jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+		jdbcTemplate.update("DELETE FROM products WHERE id = ?", PRODUCT_ID);
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void restockIsAddedToTheCounter() {
+		hotInventoryService.reserve(Map.of(PRODUCT_ID, 5));
+		assertAvailable(0);
+
+		setStock(15);
+
+		assertAvailable(10);
+	}
+
+	@Test
+	void settledSalesAreNotTakenTwiceAndCorrectionsTakeStockAway() {
+		hotInventoryService.reserve(Map.of(PRODUCT_ID, 2));
+		recordUnsettledSale(2);
+
+		hotInventoryService.flush();
+		assertEquals(3, productRepository.findById(PRODUCT_ID).get().getStock());
+		assertAvailable(3);
+
+		setStock(1);
+		assertAvailable(1);
+
+		// Lowered below what is already reserved: the counter empties and the rest waits for the next restock
+		hotInventoryService.reserve(Map.of(PRODUCT_ID, 1));
+		setStock(-1);
+		assertAvailable(0);
+		setStock(4);
+		assertAvailable(3);
+	}
+
+	@Test
+	void cancelledSalesGoBackOnSaleWhetherOrNotTheyWereSettled() {
+		hotInventoryService.reserve(Map.of(PRODUCT_ID, 2));
+		Order settled = recordUnsettledSale(2);
+		hotInventoryService.flush();
+		hotInventoryService.reserve(Map.of(PRODUCT_ID, 1));
+		Order unsettled = recordUnsettledSale(1);
+		assertAvailable(2);
+
+		// A cancel that rolls back keeps the reservation
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			stockReservationService.returnStock(List.of(unsettled.getId()));
+			throw new IllegalStateException("rolled back");
+		}));
+		assertAvailable(2);
+
+		transactionTemplate.executeWithoutResult(status -> stockReservationService.returnStock(List.of(unsettled.getId())));
+		assertAvailable(3);
+		// Marked settled without touching the row
+		hotInventoryService.flush();
+		assertEquals(3, productRepository.findById(PRODUCT_ID).get().getStock());
+
+		// Already in products.stock: added back to the row, and the counter follows on reconcile
+		transactionTemplate.executeWithoutResult(status -> stockReservationService.returnStock(List.of(settled.getId())));
+		assertEquals(5, productRepository.findById(PRODUCT_ID).get().getStock());
+		hotInventoryService.flush();
+		assertAvailable(5);
+	}
+
+	// Saved through the entity like the admin does, so ProductChangedEvent fires
+	private void setStock(int stock) {
+		Product product = productRepository.findById(PRODUCT_ID).get();
+		product.setStock(stock);
+		productRepository.save(product);
+	}
+
+	private Order recordUnsettledSale(int quantity) {
+		Order order = orderRepository.save(TestOrders.order(user, "HOT-" + UUID.randomUUID(), OrderStatus.PENDING));
+		OrderItem item = new OrderItem();
+		item.setOrder(order);
+		item.setProduct(productRepository.getReferenceById(PRODUCT_ID));
+		item.setQuantity(quantity);
+		item.setPriceMinor(999900);
+		item.setProductName("Drop sneaker");
+		item.setStockSettled(false);
+		orderItemRepository.save(item);
+		return order;
+	}
+
+	// Takes exactly the expected quantity and nothing more, then hands it back
+	private void assertAvailable(int quantity) {
+		if (quantity > 0) {
+			hotInventoryService.reserve(Map.of(PRODUCT_ID, quantity));
+		}
+		assertThrows(InsufficientStockException.class, () -> hotInventoryService.reserve(Map.of(PRODUCT_ID, 1)));
+		hotInventoryService.release(Map.of(PRODUCT_ID, quantity));
+	}
+}
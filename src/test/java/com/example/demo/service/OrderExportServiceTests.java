@@ -0,0 +1,158 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.OrderSearchCriteria;
+import com.example.demo.Model.Product;
+import com.example.demo.utils.Money;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(OrderExportService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderExportServiceTests {
+
+	private static final int SYNTHETIC_ORDERS = 1_000_000;
+
+	// Output must reach the stream in small chunks rather than as one buffered document
+	private static final int MAX_WRITE_CHUNK = 64 * 1024;
+
+	@Autowired
+	private OrderExportService orderExportService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void groupsItemsPerOrderAndEscapesCsv() {
+		long[] ids = fixtures();
+		insertOrders(3, ids);
+		jdbcTemplate.update("UPDATE order_items SET product_name = 'Tee, \"Classic\"' WHERE order_id = 2");
+		jdbcTemplate.update("DELETE FROM order_items WHERE order_id = 3");
+
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		orderExportService.export(new OrderSearchCriteria(), OrderExportService.Format.NDJSON, ndjson);
+		String[] orders = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+
+		assertEquals(3, orders.length);
+		assertTrue(orders[0].startsWith("{\"id\":1,\"orderNumber\":\"ORD-1\""));
+		assertTrue(orders[0].contains("\"totalAmount\":499.00,"));
+		assertTrue(orders[0].contains("\"items\":[{\"id\":1,"));
+		assertTrue(orders[2].endsWith("\"items\":[]}"));
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		orderExportService.export(new OrderSearchCriteria(), OrderExportService.Format.CSV, csv);
+		String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+
+		assertEquals(4, lines.length);
+		assertTrue(lines[0].startsWith("order_id,order_number,"));
+		assertTrue(lines[1].contains(",499.00,"));
+		assertTrue(lines[2].contains(",\"Tee, \"\"Classic\"\"\","));
+		assertTrue(lines[3].endsWith(",,,,,"));
+	}
+
+	// Drives the writer directly; OrderExportStreamingTests bounds the heap of a real export on PostgreSQL
+	@Test
+	void writesAMillionOrdersInBoundedChunks() {
+		CountingOutputStream out = new CountingOutputStream();
+		OrderExportService.ExportWriter writer = orderExportService.writer(OrderExportService.Format.NDJSON, out);
+		OrderExportService.ExportRow row = new OrderExportService.ExportRow();
+		row.status = "PENDING";
+		row.paymentMethod = "COD";
+		row.paymentStatus = "PENDING";
+		row.shippingFullName = "Test Customer";
+		row.shippingCity = "Pune";
+		row.shippingState = "MH";
+		row.shippingPincode = "411001";
+		row.totalAmountMinor = Money.ofMajor(998);
+		row.productName = "Export Tee";
+		row.quantity = 1;
+		row.priceMinor = Money.ofMajor(499);
+		row.size = "M";
+		row.color = "Black";
+
+		writer.begin();
+		for (long id = 1; id <= SYNTHETIC_ORDERS; id++) {
+			row.orderId = id;
+			row.orderNumber = "ORD-" + id;
+			for (long item = 0; item < 2; item++) {
+				row.itemId = id * 2 + item;
+				writer.write(row);
+			}
+		}
+		writer.finish();
+
+		assertEquals(SYNTHETIC_ORDERS, out.lines);
+		assertTrue(out.largestWrite <= MAX_WRITE_CHUNK, "largest write was " + out.largestWrite + " bytes");
+	}
+
+	private long[] fixtures() {
+		MyAppUser user = new MyAppUser();
+		user.setUsername("exporter");
+		user.setEmail("exporter@example.com");
+		user.setPassword("secret");
+		entityManager.persist(user);
+		Product product = entityManager.persist(new Product("Export Tee", Money.ofMajor(499), 10, "Men", "Export fixture"));
+		entityManager.flush();
+		return new long[] { user.getId(), product.getId() };
+	}
+
+	// One item per order
+	private void insertOrders(int count, long[] ids) {
+		jdbcTemplate.update("""
+				INSERT INTO orders (id, user_id, order_number, total_amount, status, payment_method, payment_status,
+				                    shipping_full_name, shipping_address_line1, shipping_city, shipping_state,
+				                    shipping_pincode, shipping_phone_number, created_at)
+				SELECT x, ?, 'ORD-' || x, 49900, 'PENDING', 'COD', 'PENDING',
+				       'Test Customer', '1 Main Street', 'Pune', 'MH', '411001', '9999999999', CURRENT_TIMESTAMP
+				FROM SYSTEM_RANGE(1, ?)
+				""", ids[0], count);
+		jdbcTemplate.update("""
+				INSERT INTO order_items (id, order_id, product_id, quantity, price, size, color, product_name, stock_settled)
+				SELECT x, x, ?, 1, 49900, 'M', 'Black', 'Export Tee', true
+				FROM SYSTEM_RANGE(1, ?)
+				""", ids[1], count);
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+		long lines;
+		int largestWrite;
+
+		@Override
+		public void write(int b) {
+			count(b);
+			largestWrite = Math.max(largestWrite, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				count(b[i]);
+			}
+			largestWrite = Math.max(largestWrite, len);
+		}
+
+		private void count(int b) {
+			if (b == '\n') {
+				lines++;
+			}
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.OrderSearchCriteria;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.utils.Money;
+
+// Exports a million real rows through the JDBC cursor, e.g. TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/registration
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = "spring.datasource.url=${TEST_POSTGRES_URL}")
+@Import({ OrderExportService.class, SchemaMigrationService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderExportStreamingTests {
+
+	private static final int ORDERS = 1_000_000;
+
+	// Far above ids handed out by the sequences, and removed again afterwards
+	private static final long FIRST_ID = 2_000_000_000L;
+
+	// Live heap may grow by a few fetches of rows, never by the result set (hundreds of MB)
+	private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+	@Autowired
+	private OrderExportService orderExportService;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MyAppUser user;
+	private Product product;
+	private String prefix;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("export-" + UUID.randomUUID());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		product = productRepository.save(new Product("Export Tee", Money.ofMajor(499), 10, "Men", "Export fixture"));
+		prefix = "EXP-" + UUID.randomUUID() + "-";
+
+		// Two items per order
+		jdbcTemplate.update("""
+				INSERT INTO orders (id, version, user_id, order_number, total_amount, status, payment_method, payment_status,
+				                    shipping_full_name, shipping_address_line1, shipping_city, shipping_state,
+				                    shipping_pincode, shipping_phone_number, created_at)
+				SELECT ? + x, 0, ?, ? || x, 99800, 'PENDING', 'COD', 'PENDING',
+				       'Test Customer', '1 Main Street', 'Pune', 'MH', '411001', '9999999999', now()
+				FROM generate_series(1, ?) x
+				""", FIRST_ID, user.getId(), prefix, ORDERS);
+		jdbcTemplate.update("""
+				INSERT INTO order_items (id, order_id, product_id, quantity, price, size, color, product_name, stock_settled)
+				SELECT ? + x, ? + (x + 1) / 2, ?, 1, 49900, 'M', 'Black', 'Export Tee', true
+				FROM generate_series(1, ?) x
+				""", FIRST_ID, FIRST_ID, product.getId(), 2 * ORDERS);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_items WHERE id > ?", FIRST_ID);
+		jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+		productRepository.deleteById(product.getId());
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void exportsAMillionOrdersWithBoundedHeap() {
+		HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+		OrderSearchCriteria criteria = new OrderSearchCriteria();
+		criteria.setOrderNumberPrefix(prefix);
+
+		orderExportService.export(criteria, OrderExportService.Format.NDJSON, out);
+
+		assertEquals(ORDERS, out.lines);
+		assertTrue(out.peakGrowth < MAX_HEAP_GROWTH, "live heap grew by " + out.peakGrowth / (1024 * 1024) + " MB");
+	}
+
+	// Collects garbage every 100,000 lines and records how far live heap has grown since the export started
+	private static class HeapSamplingOutputStream extends OutputStream {
+		private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		private final long baseline = liveHeap(memory);
+		long lines;
+		long peakGrowth;
+
+		@Override
+		public void write(int b) {
+			if (b == '\n' && ++lines % 100_000 == 0) {
+				peakGrowth = Math.max(peakGrowth, liveHeap(memory) - baseline);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				write(b[i]);
+			}
+		}
+
+		private static long liveHeap(MemoryMXBean memory) {
+			memory.gc();
+			return memory.getHeapMemoryUsage().getUsed();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class OrderNumberGeneratorTests {
+
+	private static final int THREADS = 16;
+	private static final int PER_THREAD = 100_000;
+
+	@Test
+	void issuesUniqueIncreasingNumbersAcrossThreads() throws Exception {
+		OrderNumberGenerator generator = new OrderNumberGenerator(7);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String[]>> results = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				String[] numbers = new String[PER_THREAD];
+				for (int i = 0; i < PER_THREAD; i++) {
+					numbers[i] = generator.next();
+				}
+				return numbers;
+			}));
+		}
+		long started = System.nanoTime();
+		start.countDown();
+		String[] all = new String[THREADS * PER_THREAD];
+		int n = 0;
+		for (Future<String[]> result : results) {
+			String[] numbers = result.get();
+			for (int i = 0; i < numbers.length; i++) {
+				// Fixed width, so string order is issue order within a thread
+				assertTrue(i == 0 || numbers[i - 1].compareTo(numbers[i]) < 0);
+				all[n++] = numbers[i];
+			}
+		}
+		long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+		pool.shutdown();
+
+		Arrays.sort(all);
+		for (int i = 1; i < all.length; i++) {
+			assertNotEquals(all[i - 1], all[i]);
+		}
+		assertEquals(17, all[0].length());
+		assertTrue(all[0].startsWith(OrderNumberGenerator.PREFIX));
+		// 1.6M numbers; an order of magnitude more than a peak day, in well under a minute
+		assertTrue(elapsedMillis < 60_000, "took " + elapsedMillis + " ms");
+	}
+
+	@Test
+	void staysMonotonicWhenTheClockStepsBackOrASequenceOverflows() {
+		AtomicLong now = new AtomicLong(OrderNumberGenerator.EPOCH_MILLIS + 1_000);
+		OrderNumberGenerator generator = new OrderNumberGenerator(1, now::get);
+
+		long previous = generator.nextId();
+		for (int i = 0; i < 10_000; i++) {
+			long id = generator.nextId();
+			assertTrue(id > previous);
+			previous = id;
+		}
+		now.addAndGet(-5_000);
+		assertTrue(generator.nextId() > previous);
+	}
+
+	@Test
+	void nodesNeverCollide() {
+		long millis = OrderNumberGenerator.EPOCH_MILLIS + 42;
+		OrderNumberGenerator first = new OrderNumberGenerator(1, () -> millis);
+		OrderNumberGenerator second = new OrderNumberGenerator(2, () -> millis);
+
+		assertNotEquals(first.next(), second.next());
+		assertThrows(IllegalArgumentException.class, () -> new OrderNumberGenerator(OrderNumberGenerator.MAX_NODE_ID + 1));
+	}
+}
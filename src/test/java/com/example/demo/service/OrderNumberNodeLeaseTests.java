@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderNumberNodeLeaseTests {
+
+	private static final Duration LEASE = Duration.ofMinutes(1);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final TestClock clock = new TestClock();
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_number_nodes");
+	}
+
+	@Test
+	void instancesWithoutANodeIdLeaseDifferentIds() {
+		OrderNumberNodeLease first = lease(null);
+		OrderNumberNodeLease second = lease(null);
+		assertEquals(0, first.nodeId());
+		assertEquals(1, second.nodeId());
+
+		// A released id is handed out again
+		first.release();
+		assertEquals(0, lease(null).nodeId());
+	}
+
+	@Test
+	void aConfiguredNodeIdHeldByARunningInstanceFailsStartup() {
+		OrderNumberNodeLease running = lease(5);
+		assertEquals(5, running.nodeId());
+		assertThrows(IllegalStateException.class, () -> lease(5));
+
+		// Leased ids skip it too
+		OrderNumberNodeLease configured = lease(0);
+		assertEquals(1, lease(null).nodeId());
+
+		configured.release();
+		assertEquals(0, lease(0).nodeId());
+	}
+
+	@Test
+	void anExpiredLeaseIsTakenOverAndItsHolderMovesToAnotherId() {
+		OrderNumberNodeLease paused = lease(null);
+		assertEquals(0, paused.nodeId());
+
+		// The holder stops renewing, e.g. a long pause
+		clock.advance(LEASE.plusSeconds(1));
+		OrderNumberNodeLease replacement = lease(null);
+		assertEquals(0, replacement.nodeId());
+
+		// Past its local expiry the old holder renews before using the id, finds it gone and leases another
+		assertEquals(1, paused.nodeId());
+		assertEquals(0, replacement.nodeId());
+	}
+
+	@Test
+	void renewingKeepsTheIdWhileOthersStart() {
+		OrderNumberNodeLease running = lease(null);
+		clock.advance(LEASE.dividedBy(2));
+		running.renew();
+		clock.advance(LEASE.dividedBy(2).plusSeconds(1));
+
+		assertEquals(1, lease(null).nodeId());
+		assertEquals(0, running.nodeId());
+	}
+
+	private OrderNumberNodeLease lease(Integer nodeId) {
+		return new OrderNumberNodeLease(jdbcTemplate, transactionManager, nodeId, LEASE, clock);
+	}
+
+	private static class TestClock extends Clock {
+		private Instant now = Instant.parse("2026-03-01T10:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderItem;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.Model.TestOrders;
+import com.example.demo.utils.Money;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ OrderStatusService.class, StockReservationService.class, HotInventoryService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStatusServiceTests {
+
+	@Autowired
+	private OrderStatusService orderStatusService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	private MyAppUser user;
+	private int orderCount;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("buyer");
+		user.setEmail("buyer@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderRepository.deleteAll();
+		productRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void enforcesTheLifecycleAndRejectsStaleUpdates() {
+		Order order = order(OrderStatus.PENDING);
+
+		assertThrows(OrderStatusException.class,
+				() -> orderStatusService.transition(order, OrderStatus.SHIPPED, null, "AWB1", "Delhivery"));
+
+		// Warehouse and admin both read version 0; the second save must not win
+		Order warehouseCopy = orderRepository.findById(order.getId()).get();
+		Order adminCopy = orderRepository.findById(order.getId()).get();
+		orderStatusService.transition(warehouseCopy, OrderStatus.CONFIRMED, null, null, null);
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> orderStatusService.transition(adminCopy, OrderStatus.CANCELLED, null, null, null));
+
+		Order confirmed = orderRepository.findById(order.getId()).get();
+		assertEquals(OrderStatus.CONFIRMED, confirmed.getStatus());
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> orderStatusService.transition(confirmed, OrderStatus.SHIPPED, 0L, "AWB1", "Delhivery"));
+		Order shipped = orderStatusService.transition(confirmed, OrderStatus.SHIPPED, confirmed.getVersion(), "AWB1", "Delhivery");
+		assertEquals("AWB1", shipped.getTrackingNumber());
+		assertNotNull(shipped.getShippedDate());
+	}
+
+	@Test
+	void bulkTransitionsApplyPerStatusAndReportRejectedIds() {
+		List<Long> pending = new ArrayList<>();
+		for (int i = 0; i < 1500; i++) {
+			pending.add(order(OrderStatus.PENDING).getId());
+		}
+		Long delivered = order(OrderStatus.DELIVERED).getId();
+		Long missing = -1L;
+
+		List<Long> toConfirm = new ArrayList<>(pending.subList(0, 1200));
+		toConfirm.add(delivered);
+		toConfirm.add(missing);
+		// Confirmed first, so the same request can ship some of them
+		OrderStatusService.BulkTransitionResult result = orderStatusService.transitionAll(Map.of(
+				OrderStatus.SHIPPED, pending.subList(0, 10),
+				OrderStatus.CONFIRMED, toConfirm,
+				OrderStatus.CANCELLED, List.of(pending.get(1400), delivered)));
+
+		assertEquals(1200 + 10 + 1, result.getApplied());
+		assertEquals(List.of(delivered, missing, delivered), result.getRejectedIds());
+
+		Order shipped = orderRepository.findById(pending.get(0)).get();
+		assertEquals(OrderStatus.SHIPPED, shipped.getStatus());
+		assertEquals(2L, shipped.getVersion());
+		assertNotNull(shipped.getShippedDate());
+		assertEquals(OrderStatus.CONFIRMED, orderRepository.findById(pending.get(1100)).get().getStatus());
+		assertEquals(OrderStatus.CANCELLED, orderRepository.findById(pending.get(1400)).get().getStatus());
+		assertEquals(OrderStatus.PENDING, orderRepository.findById(pending.get(1300)).get().getStatus());
+	}
+
+	@Test
+	void cancellingGivesTheStockBack() {
+		Product shirt = productRepository.save(new Product("Shirt", Money.ofMajor(20), 10, "Men", "Test product"));
+		Product scarf = productRepository.save(new Product("Scarf", Money.ofMajor(15), 10, "Women", "Test product"));
+
+		Order order = order(OrderStatus.CONFIRMED, item(shirt, 3, true), item(scarf, 1, true));
+		orderStatusService.transition(order, OrderStatus.CANCELLED, null, null, null);
+		assertStock(13, shirt);
+		assertStock(11, scarf);
+
+		Order first = order(OrderStatus.PENDING, item(shirt, 2, true));
+		Order second = order(OrderStatus.PENDING, item(shirt, 1, true), item(scarf, 4, true));
+		// Never taken off products.stock, so there is nothing to add back
+		Order unsettled = order(OrderStatus.PENDING, item(scarf, 5, false));
+		Order delivered = order(OrderStatus.DELIVERED, item(shirt, 7, true));
+		OrderStatusService.BulkTransitionResult result = orderStatusService.transitionAll(Map.of(
+				OrderStatus.CANCELLED, List.of(first.getId(), second.getId(), unsettled.getId(), delivered.getId(), order.getId())));
+
+		assertEquals(3, result.getApplied());
+		assertEquals(List.of(delivered.getId(), order.getId()), result.getRejectedIds());
+		assertStock(16, shirt);
+		assertStock(15, scarf);
+	}
+
+	private void assertStock(int stock, Product product) {
+		assertEquals(stock, productRepository.findById(product.getId()).get().getStock());
+	}
+
+	private Order order(OrderStatus status, OrderItem... items) {
+		Order order = TestOrders.order(user, "ORD-" + ++orderCount, status);
+		for (OrderItem item : items) {
+			item.setOrder(order);
+			order.getOrderItems().add(item);
+		}
+		return orderRepository.save(order);
+	}
+
+	private static OrderItem item(Product product, int quantity, boolean stockSettled) {
+		OrderItem item = new OrderItem();
+		item.setProduct(product);
+		item.setProductName(product.getName());
+		item.setQuantity(quantity);
+		item.setPriceMinor(product.getPriceMinor());
+		item.setStockSettled(stockSettled);
+		return item;
+	}
+
+	private Order order(OrderStatus status) {
+		return orderRepository.save(TestOrders.order(user, "ORD-" + ++orderCount, status));
+	}
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.Model.Product;
+import com.example.demo.utils.Money;
+
+class ProductSearchIndexTests {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex();
+		index.rebuild(List.of(
+				product(1L, "Slim Fit Jeans", "Men", "Comfortable slim fit jeans made from premium denim", 4.5),
+				product(2L, "High-Waist Jeans", "Women", "Stylish high-waist jeans for women", 4.4),
+				product(3L, "Denim Jacket", "Men", "Classic denim jacket", 4.0),
+				product(4L, "Floral Summer Dress", "Women", "Beautiful floral print dress", 4.7)));
+	}
+
+	@Test
+	void matchesLastTermAsPrefix() {
+		assertEquals(List.of(3L, 1L), index.search("den", null, 10));
+		assertEquals(List.of(4L), index.search("floral dre", null, 10));
+	}
+
+	@Test
+	void requiresEveryTermAndFiltersByCategory() {
+		assertEquals(List.of(1L), index.search("slim jeans", null, 10));
+		assertEquals(List.of(2L), index.search("jeans", "women", 10));
+	}
+
+	@Test
+	void ranksNameMatchesAboveDescriptionThenByRating() {
+		// "denim" is in the jacket's name but only the jeans' description
+		assertEquals(List.of(3L, 1L), index.search("denim", null, 10));
+		// Both jeans match equally, so the higher rated one comes first
+		assertEquals(List.of(1L, 2L), index.search("jeans", null, 10));
+	}
+
+	@Test
+	void reindexesAndDropsInactiveProducts() {
+		Product renamed = product(4L, "Linen Shirt", "Men", "Breathable linen", 4.1);
+		index.index(renamed);
+		assertTrue(index.search("floral", null, 10).isEmpty());
+		assertEquals(List.of(4L), index.search("linen", null, 10));
+
+		renamed.setActive(false);
+		index.index(renamed);
+		assertTrue(index.search("linen", null, 10).isEmpty());
+		assertEquals(3, index.size());
+	}
+
+	private static Product product(Long id, String name, String category, String description, double rating) {
+		Product product = new Product(name, Money.ofMajor(999), 10, category, description);
+		product.setId(id);
+		product.setRating(rating);
+		return product;
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.TestOrders;
+
+// The migrations are PostgreSQL SQL, e.g. TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/registration
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = "spring.datasource.url=${TEST_POSTGRES_URL}")
+@Import(SchemaMigrationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationServiceTests {
+
+	@Autowired
+	private SchemaMigrationService schemaMigrationService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MyAppUser user;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("migration-" + UUID.randomUUID());
+		user.setEmail(user.getUsername() + "@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", user.getId());
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void replacesStatusesOutsideTheEnumSoOrdersLoadAgain() {
+		Long processing = legacyOrder("PROCESSING", null, null);
+		Long shippedTest = legacyOrder("TEST", LocalDateTime.of(2025, 5, 1, 10, 0), null);
+		Long deliveredJunk = legacyOrder("done!", LocalDateTime.of(2025, 5, 1, 10, 0), LocalDateTime.of(2025, 5, 3, 10, 0));
+		Long lowerCase = legacyOrder(" shipped ", null, null);
+
+		schemaMigrationService.migrate();
+
+		assertStatus(processing, OrderStatus.PENDING, 1L);
+		assertStatus(shippedTest, OrderStatus.SHIPPED, 1L);
+		assertStatus(deliveredJunk, OrderStatus.DELIVERED, 1L);
+		assertStatus(lowerCase, OrderStatus.SHIPPED, 0L);
+
+		// Nothing left to fix on the next startup
+		schemaMigrationService.migrate();
+		assertStatus(processing, OrderStatus.PENDING, 1L);
+	}
+
+	private Long legacyOrder(String status, LocalDateTime shippedDate, LocalDateTime deliveredDate) {
+		Order order = orderRepository.save(TestOrders.order(user, "MIG-" + UUID.randomUUID(), OrderStatus.PENDING));
+		jdbcTemplate.update("UPDATE orders SET status = ?, shipped_date = ?, delivered_date = ? WHERE id = ?",
+				status, shippedDate, deliveredDate, order.getId());
+		return order.getId();
+	}
+
+	private void assertStatus(Long orderId, OrderStatus status, Long version) {
+		Order order = orderRepository.findById(orderId).get();
+		assertEquals(status, order.getStatus());
+		assertEquals(version, order.getVersion());
+	}
+}
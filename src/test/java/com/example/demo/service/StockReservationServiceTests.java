@@ -0,0 +1,104 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.Product;
+import com.example.demo.Model.ProductRepository;
+import com.example.demo.utils.Money;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ StockReservationService.class, HotInventoryService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTests {
+
+	private static final int THREADS = 16;
+	private static final int ATTEMPTS_PER_THREAD = 200;
+	private static final int STOCK = 1000;
+	// A loose floor, an order of magnitude under what H2 does here: it catches reservations stuck waiting on locks, not noise
+	private static final double MIN_ATTEMPTS_PER_SECOND = 50;
+
+	@Autowired
+	private StockReservationService stockReservationService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@AfterEach
+	void tearDown() {
+		productRepository.deleteAll();
+	}
+
+	@Test
+	void hotSkuIsNeverOversold() throws Exception {
+		Long productId = productRepository.save(new Product("Limited Drop Sneaker", Money.ofMajor(4999), STOCK, "Men", "Hot SKU")).getId();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				int granted = 0;
+				for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+					try {
+						stockReservationService.reserve(Map.of(productId, 1));
+						granted++;
+					} catch (InsufficientStockException e) {
+						// sold out
+					}
+				}
+				return granted;
+			}));
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		int granted = 0;
+		for (Future<Integer> result : results) {
+			granted += result.get();
+		}
+		long elapsedNanos = System.nanoTime() - begin;
+		pool.shutdown();
+		pool.awaitTermination(10, TimeUnit.SECONDS);
+
+		assertEquals(STOCK, granted);
+		assertEquals(0, productRepository.findById(productId).orElseThrow().getStock());
+
+		double attemptsPerSecond = THREADS * ATTEMPTS_PER_THREAD / (elapsedNanos / 1e9);
+		assertTrue(attemptsPerSecond >= MIN_ATTEMPTS_PER_SECOND, () -> String.format(
+				"%d attempts from %d threads took %d ms (%.0f/s)",
+				THREADS * ATTEMPTS_PER_THREAD, THREADS, elapsedNanos / 1_000_000, attemptsPerSecond));
+	}
+
+	@Test
+	void reportsEveryShortLineAndRollsBackTheRest() {
+		Long plenty = productRepository.save(new Product("Cotton Shirt", Money.ofMajor(1299), 10, "Men", "In stock")).getId();
+		Long scarce = productRepository.save(new Product("Silk Saree", Money.ofMajor(3999), 1, "Women", "Last one")).getId();
+
+		InsufficientStockException e = assertThrows(InsufficientStockException.class,
+				() -> stockReservationService.reserve(Map.of(plenty, 2, scarce, 3)));
+
+		assertEquals(List.of(scarce), e.getProductIds());
+		assertEquals(10, productRepository.findById(plenty).orElseThrow().getStock());
+		assertEquals(1, productRepository.findById(scarce).orElseThrow().getStock());
+	}
+}
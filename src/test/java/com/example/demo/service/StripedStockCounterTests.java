@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class StripedStockCounterTests {
+
+	@Test
+	void grantsExactlyTheInitialStockUnderContention() throws Exception {
+		StripedStockCounter counter = new StripedStockCounter(10_000, 8);
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Long>> results = new ArrayList<>();
+		for (int t = 0; t < 16; t++) {
+			int quantity = t % 3 + 1;
+			results.add(pool.submit(() -> {
+				start.await();
+				long granted = 0;
+				for (int i = 0; i < 5_000; i++) {
+					if (counter.tryAcquire(quantity)) {
+						granted += quantity;
+					}
+				}
+				return granted;
+			}));
+		}
+		start.countDown();
+		long granted = 0;
+		for (Future<Long> result : results) {
+			granted += result.get();
+		}
+		pool.shutdown();
+
+		assertEquals(10_000, granted + counter.available());
+		assertTrue(counter.available() < 3);
+	}
+
+	@Test
+	void gathersAcrossStripesAndGivesBackWhenShort() {
+		StripedStockCounter counter = new StripedStockCounter(5, 4);
+
+		assertTrue(counter.tryAcquire(4));
+		assertFalse(counter.tryAcquire(2));
+		assertEquals(1, counter.available());
+
+		counter.release(3);
+		assertTrue(counter.tryAcquire(4));
+		assertEquals(0, counter.available());
+	}
+
+	@Test
+	void buyersRacingForTheLastUnitsAcrossStripesNeverBothGoWithout() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			for (int round = 0; round < 2_000; round++) {
+				// 3 or 4 per stripe, so most pairs have to be gathered from two stripes
+				StripedStockCounter counter = new StripedStockCounter(30, 8);
+				CountDownLatch start = new CountDownLatch(1);
+				List<Future<Long>> results = new ArrayList<>();
+				for (int t = 0; t < 8; t++) {
+					results.add(pool.submit(() -> {
+						start.await();
+						long granted = 0;
+						// A buyer only gives up once it has been refused
+						while (counter.tryAcquire(2)) {
+							granted += 2;
+						}
+						return granted;
+					}));
+				}
+				start.countDown();
+				long granted = 0;
+				for (Future<Long> result : results) {
+					granted += result.get();
+				}
+
+				assertEquals(30, granted, "round " + round);
+				assertEquals(0, counter.available());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.Model.MyAppUser;
+import com.example.demo.Model.MyAppUserRepository;
+import com.example.demo.Model.Order;
+import com.example.demo.Model.OrderRepository;
+import com.example.demo.Model.OrderStatus;
+import com.example.demo.Model.TestOrders;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(TrackingIngestionService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TrackingIngestionServiceTests {
+
+	@Autowired
+	private TrackingIngestionService trackingIngestionService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private MyAppUserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private MyAppUser user;
+
+	@BeforeEach
+	void setUp() {
+		user = new MyAppUser();
+		user.setUsername("buyer");
+		user.setEmail("buyer@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		orderRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void coalescesEventsPerOrderAndFollowsTheLifecycle() throws Exception {
+		order("ORD-A", OrderStatus.CONFIRMED);
+		order("ORD-B", OrderStatus.SHIPPED);
+		order("ORD-C", OrderStatus.CANCELLED);
+		order("ORD-D", OrderStatus.PENDING);
+
+		String json = "["
+				+ "{\"orderNumber\":\"ORD-A\",\"trackingNumber\":\"AWB1\",\"courierName\":\"Delhivery\",\"status\":\"shipped\",\"eventTime\":\"2026-03-01T10:00:00\"},"
+				+ "{\"orderNumber\":\"ORD-A\",\"trackingNumber\":\"AWB2\",\"status\":\"SHIPPED\",\"eventTime\":\"2026-03-01T12:00:00\"},"
+				+ "{\"orderNumber\":\"ORD-A\",\"status\":\"SHIPPED\",\"eventTime\":\"2026-03-01T09:00:00\"},"
+				+ "{\"orderNumber\":\"ORD-B\",\"status\":\"DELIVERED\",\"eventTime\":\"2026-03-02T18:00:00\"},"
+				+ "{\"orderNumber\":\"ORD-C\",\"status\":\"SHIPPED\"},"
+				+ "{\"orderNumber\":\"ORD-D\",\"status\":\"DELIVERED\"},"
+				+ "{\"orderNumber\":\"ORD-MISSING\",\"status\":\"SHIPPED\"},"
+				+ "{\"orderNumber\":\"ORD-A\",\"status\":\"IN_TRANSIT\"},"
+				+ "{\"status\":\"SHIPPED\"}"
+				+ "]";
+
+		TrackingIngestionService.IngestResult result = trackingIngestionService.ingestJson(
+				new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(9, result.getEvents());
+		assertEquals(2, result.getRejected());
+		assertEquals(5, result.getOrders());
+		assertEquals(2, result.getUpdated());
+		assertEquals(List.of("ORD-C", "ORD-D", "ORD-MISSING"), result.getUnmatchedOrderNumbers().stream().sorted().toList());
+
+		Order a = orderRepository.findByOrderNumber("ORD-A");
+		assertEquals(OrderStatus.SHIPPED, a.getStatus());
+		assertEquals("AWB2", a.getTrackingNumber());
+		assertEquals("Delhivery", a.getCourierName());
+		assertEquals(LocalDateTime.of(2026, 3, 1, 9, 0), a.getShippedDate());
+		assertEquals(1L, a.getVersion());
+
+		Order b = orderRepository.findByOrderNumber("ORD-B");
+		assertEquals(OrderStatus.DELIVERED, b.getStatus());
+		assertEquals(LocalDateTime.of(2026, 3, 2, 18, 0), b.getDeliveredDate());
+		assertEquals(OrderStatus.CANCELLED, orderRepository.findByOrderNumber("ORD-C").getStatus());
+		assertNull(orderRepository.findByOrderNumber("ORD-D").getShippedDate());
+	}
+
+	@Test
+	void rejectsJsonFeedsThatAreNotAnArrayOfObjects() throws Exception {
+		order("ORD-A", OrderStatus.CONFIRMED);
+
+		for (String json : List.of(
+				"[{\"orderNumber\":\"ORD-A\",\"status\":\"SHIPPED\"}, 42]",
+				"[{\"orderNumber\":\"ORD-A\",\"status\":\"SHIPPED\"}, [{\"orderNumber\":\"ORD-A\"}]]",
+				"[{\"orderNumber\":\"ORD-A\",\"status\":\"SHIPPED\"}, null]",
+				"[{\"orderNumber\":\"ORD-A\",\"status\":\"SHIPPED\"}, \"ORD-A\"]")) {
+			assertThrows(IllegalArgumentException.class, () -> trackingIngestionService.ingestJson(
+					new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))), json);
+		}
+		// A cut-off feed is malformed JSON, which the webhook answers with 400 as well
+		assertThrows(JsonProcessingException.class, () -> trackingIngestionService.ingestJson(new ByteArrayInputStream(
+				"[{\"orderNumber\":\"ORD-A\",\"status\":\"SHIPPED\"},".getBytes(StandardCharsets.UTF_8))));
+		// Nothing was applied from the rejected feeds
+		assertEquals(OrderStatus.CONFIRMED, orderRepository.findByOrderNumber("ORD-A").getStatus());
+
+		TrackingIngestionService.IngestResult empty = trackingIngestionService.ingestJson(
+				new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(0, empty.getEvents());
+	}
+
+	@Test
+	void readsQuotedCsvAndRejectsFilesWithoutRequiredColumns() throws Exception {
+		order("ORD-A", OrderStatus.CONFIRMED);
+
+		String csv = "Status,Order_Number,Courier_Name,Tracking_Number,Event_Time\n"
+				+ "DELIVERED,ORD-A,\"Blue Dart, Express\",\"AWB\"\"9\",2026-03-01T10:00:00+05:30\n";
+		TrackingIngestionService.IngestResult result = trackingIngestionService.ingestCsv(new StringReader(csv));
+
+		assertEquals(1, result.getUpdated());
+		Order a = orderRepository.findByOrderNumber("ORD-A");
+		assertEquals(OrderStatus.DELIVERED, a.getStatus());
+		assertEquals("Blue Dart, Express", a.getCourierName());
+		assertEquals("AWB\"9", a.getTrackingNumber());
+		// A delivery with no shipped scan still records a shipped date
+		assertEquals(a.getDeliveredDate(), a.getShippedDate());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> trackingIngestionService.ingestCsv(new StringReader("order_number,tracking_number\nORD-A,AWB\n")));
+	}
+
+	@Test
+	void ingestsLargeFeedsInBatches() throws Exception {
+		int orders = 20_000;
+		int eventsPerOrder = 10;
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < orders; i++) {
+			rows.add(new Object[] { 1_000_000L + i, "ORD-L" + i, now, now, user.getId() });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_number, created_at, updated_at, user_id, status, version, "
+				+ "total_amount, payment_method, payment_status, shipping_full_name, shipping_address_line1, "
+				+ "shipping_city, shipping_state, shipping_pincode, shipping_phone_number) "
+				+ "VALUES (?, ?, ?, ?, ?, 'CONFIRMED', 0, 49900, 'COD', 'PENDING', 'Test Customer', '1 Test Street', "
+				+ "'Pune', 'MH', '411001', '9999999999')", rows);
+
+		StringBuilder csv = new StringBuilder("order_number,tracking_number,courier_name,status,event_time\n");
+		for (int e = 0; e < eventsPerOrder; e++) {
+			for (int i = 0; i < orders; i++) {
+				String status = e == eventsPerOrder - 1 && i % 2 == 0 ? "DELIVERED" : "SHIPPED";
+				csv.append("ORD-L").append(i).append(",AWB").append(i).append(",Delhivery,")
+						.append(status).append(",2026-03-01T10:").append(String.format("%02d", e)).append(":00\n");
+			}
+		}
+
+		long start = System.nanoTime();
+		TrackingIngestionService.IngestResult result = trackingIngestionService.ingestCsv(new StringReader(csv.toString()));
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertEquals((long) orders * eventsPerOrder, result.getEvents());
+		assertEquals(orders, result.getUpdated());
+		assertEquals(0, result.getUnmatched());
+		assertEquals(orders / 2, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM orders WHERE status = 'DELIVERED'", Integer.class));
+		assertTrue(elapsedMillis < 60_000, "ingest took " + elapsedMillis + " ms");
+	}
+
+	private Order order(String orderNumber, OrderStatus status) {
+		return orderRepository.save(TestOrders.order(user, orderNumber, status));
+	}
+}
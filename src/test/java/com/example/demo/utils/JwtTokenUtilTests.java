@@ -0,0 +1,49 @@
+package com.example.demo.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtTokenUtilTests {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(
+			"0123456789abcdef0123456789abcdef".getBytes());
+
+	private static JwtTokenUtil util(String secret, Duration expiration) {
+		return new JwtTokenUtil(new SimpleMeterRegistry(), secret, expiration, Duration.ofHours(1), 100);
+	}
+
+	@Test
+	void tokensVerifyAcrossInstancesSharingTheSecret() {
+		String token = util(SECRET, Duration.ofHours(1)).generateToken("shopper@example.com");
+
+		assertEquals("shopper@example.com", util(SECRET, Duration.ofHours(1)).extractEmail(token));
+		assertFalse(util("", Duration.ofHours(1)).validateToken(token));
+	}
+
+	@Test
+	void cachesVerifiedClaimsAndRejectsBadTokens() {
+		JwtTokenUtil jwt = util(SECRET, Duration.ofHours(1));
+		String token = jwt.generateToken("shopper@example.com");
+
+		assertSame(jwt.parse(token).get(), jwt.parse(token).get());
+		assertFalse(jwt.validateToken(token.substring(0, token.length() - 2) + "xx"));
+		assertFalse(jwt.validateToken("not-a-token"));
+		assertFalse(jwt.validateToken(null));
+	}
+
+	@Test
+	void expiredTokensAreRejected() {
+		String token = util(SECRET, Duration.ofMillis(-1000)).generateToken("shopper@example.com");
+
+		assertTrue(util(SECRET, Duration.ofHours(1)).parse(token).isEmpty());
+	}
+}